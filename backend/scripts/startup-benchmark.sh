@@ -0,0 +1,106 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from JVM launch to the first successful
+# GET /api/auth/health and to the first successful login.
+#
+# Usage: scripts/startup-benchmark.sh [plain|cds|native] [runs]
+#   plain   java -jar target/backend-0.0.1-SNAPSHOT.jar          (mvn package)
+#   cds     AOT + CDS archive from target/fast-startup           (mvn -Pfast-startup package)
+#   native  target/backend                                       (mvn -Pnative native:compile)
+#
+# Needs a running database. The benchmark user is registered on the first run
+# if it does not exist yet. Results are appended to target/startup-benchmark.csv.
+
+set -euo pipefail
+
+MODE="${1:-plain}"
+RUNS="${2:-5}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}/api/auth"
+EMAIL="${BENCH_EMAIL:-startup-bench@example.com}"
+PASSWORD="${BENCH_PASSWORD:-StartupBench123}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+RESULTS="target/startup-benchmark.csv"
+
+cd "$(dirname "$0")/.."
+
+JAR="target/backend-0.0.1-SNAPSHOT.jar"
+case "$MODE" in
+    plain)
+        CMD=(java -jar "$JAR")
+        ;;
+    cds)
+        CMD=(java -XX:SharedArchiveFile=target/fast-startup/application.jsa -Dspring.aot.enabled=true
+             -jar target/fast-startup/backend-0.0.1-SNAPSHOT.jar)
+        ;;
+    native)
+        CMD=(target/backend)
+        ;;
+    *)
+        echo "Unknown mode: $MODE (expected plain, cds or native)" >&2
+        exit 1
+        ;;
+esac
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+status_of() {
+    curl -s -o /dev/null -w '%{http_code}' "$@" || true
+}
+
+login_status() {
+    status_of -X POST "$BASE_URL/login" -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}"
+}
+
+register_user() {
+    status_of -X POST "$BASE_URL/register" -H 'Content-Type: application/json' \
+        -d "{\"fullName\":\"Startup Bench\",\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" > /dev/null
+}
+
+wait_for() {
+    local deadline=$1
+    shift
+    while [ "$(now_ms)" -lt "$deadline" ]; do
+        if [ "$("$@")" = "200" ]; then
+            return 0
+        fi
+        sleep 0.02
+    done
+    return 1
+}
+
+mkdir -p target
+[ -f "$RESULTS" ] || echo "timestamp,mode,run,health_ms,login_ms" > "$RESULTS"
+
+for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    "${CMD[@]}" --server.port="$PORT" > "target/startup-benchmark-$MODE.log" 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+    deadline=$(( start + TIMEOUT_SECONDS * 1000 ))
+
+    if ! wait_for "$deadline" status_of "$BASE_URL/health"; then
+        echo "Timed out waiting for /health (see target/startup-benchmark-$MODE.log)" >&2
+        exit 1
+    fi
+    health_ms=$(( $(now_ms) - start ))
+
+    if [ "$(login_status)" = "401" ]; then
+        register_user
+    fi
+    if ! wait_for "$deadline" login_status; then
+        echo "Timed out waiting for a successful login" >&2
+        exit 1
+    fi
+    login_ms=$(( $(now_ms) - start ))
+
+    echo "$MODE run $run: health ${health_ms} ms, login ${login_ms} ms"
+    echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$MODE,$run,$health_ms,$login_ms" >> "$RESULTS"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+done
@@ -0,0 +1,238 @@
+package com.login.backend.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail for authentication events.
+ * <p>
+ * Request threads only enqueue into a bounded lock-free ring buffer; a single
+ * background writer drains it and inserts into auth_events with JDBC batches.
+ * When the buffer is full events are dropped (default) or the caller waits up
+ * to audit.block-timeout for space. The service stops after the web server's
+ * graceful shutdown, so events from draining requests are still written;
+ * events recorded after that are counted as dropped.
+ */
+@Service
+public class AuthAuditService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthAuditService.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO auth_events (occurred_at, event_type, outcome, user_id, email, client_ip, user_agent, latency_micros) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+
+    public enum FullPolicy {
+        DROP,
+        BLOCK
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${audit.full-policy:DROP}")
+    private FullPolicy fullPolicy;
+
+    @Value("${audit.block-timeout:5ms}")
+    private Duration blockTimeout;
+
+    private MpscRingBuffer<AuthEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    private Counter written;
+    private Counter dropped;
+    private Counter failed;
+    private Timer flushLag;
+
+    @PostConstruct
+    void init() {
+        buffer = new MpscRingBuffer<>(bufferSize);
+        written = Counter.builder("auth.audit.events").tag("result", "written").register(meterRegistry);
+        dropped = Counter.builder("auth.audit.events").tag("result", "dropped").register(meterRegistry);
+        failed = Counter.builder("auth.audit.events").tag("result", "failed").register(meterRegistry);
+        flushLag = Timer.builder("auth.audit.flush_lag")
+            .description("Age of the oldest event in each flushed batch")
+            .register(meterRegistry);
+        Gauge.builder("auth.audit.pending", buffer, MpscRingBuffer::size)
+            .description("Events waiting to be written")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record an event; never touches the database on the calling thread
+     * @param type event type
+     * @param outcome event outcome
+     * @param userId user id if known
+     * @param email email the attempt was made for, if known
+     * @param clientIp remote address
+     * @param userAgent User-Agent header
+     * @param startNanos {@link System#nanoTime()} when handling started
+     */
+    public void record(AuthEvent.Type type, AuthEvent.Outcome outcome, Long userId, String email,
+                       String clientIp, String userAgent, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        if (stopped) {
+            dropped.increment();
+            return;
+        }
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        if (userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH) {
+            userAgent = userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+        }
+        AuthEvent event = new AuthEvent(LocalDateTime.now(), type, outcome, userId, email, clientIp, userAgent, latencyMicros);
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (fullPolicy == FullPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(50_000);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        dropped.increment();
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server, including its graceful shutdown
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        stopped = false;
+        running = true;
+        writer = new Thread(this::writeLoop, "auth-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped = true;
+        if (!writer.isAlive()) {
+            // The buffer has a single consumer; only drain here once the writer is gone
+            List<AuthEvent> batch = new ArrayList<>(batchSize);
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                flush(batch);
+            }
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<AuthEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+                continue;
+            }
+            flush(batch);
+        }
+        // Final drain on shutdown
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<AuthEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    AuthEvent event = batch.get(i);
+                    ps.setTimestamp(1, Timestamp.valueOf(event.occurredAt()));
+                    ps.setString(2, event.type().name());
+                    ps.setString(3, event.outcome().name());
+                    if (event.userId() == null) {
+                        ps.setNull(4, Types.BIGINT);
+                    } else {
+                        ps.setLong(4, event.userId());
+                    }
+                    ps.setString(5, event.email());
+                    ps.setString(6, event.clientIp());
+                    ps.setString(7, event.userAgent());
+                    ps.setLong(8, event.latencyMicros());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            written.increment(batch.size());
+            flushLag.record(Duration.between(batch.get(0).occurredAt(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("Could not write {} audit events: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+}
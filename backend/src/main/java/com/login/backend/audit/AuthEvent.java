@@ -0,0 +1,29 @@
+package com.login.backend.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * One authentication event as written to the auth_events table.
+ */
+public record AuthEvent(LocalDateTime occurredAt,
+                        Type type,
+                        Outcome outcome,
+                        Long userId,
+                        String email,
+                        String clientIp,
+                        String userAgent,
+                        long latencyMicros) {
+
+    public enum Type {
+        LOGIN,
+        REGISTER,
+        REFRESH,
+        LOGOUT
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        FAILURE,
+        RATE_LIMITED
+    }
+}
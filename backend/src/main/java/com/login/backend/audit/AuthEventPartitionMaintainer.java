@@ -0,0 +1,43 @@
+package com.login.backend.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Creates the monthly auth_events partitions ahead of time: the current and
+ * the next month, at startup and then daily.
+ */
+@Component
+public class AuthEventPartitionMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthEventPartitionMaintainer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${audit.partition-check-interval:24h}")
+    public void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        createPartition(current);
+        createPartition(current.plusMonths(1));
+    }
+
+    private void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String name = String.format("auth_events_%04d_%02d", month.getYear(), month.getMonthValue());
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF auth_events " +
+                "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        } catch (RuntimeException e) {
+            log.warn("Could not create partition {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.login.backend.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer/single-consumer ring buffer.
+ * <p>
+ * Producers claim a sequence with a CAS on the tail and then publish the
+ * element into its slot; the single consumer takes published elements in
+ * sequence order and frees their slots before advancing the head. A claimed
+ * but not yet published slot ends the current drain, and is picked up by the
+ * next one.
+ */
+final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param requestedCapacity minimum capacity, rounded up to a power of two
+     */
+    MpscRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.capacity = size;
+    }
+
+    /**
+     * Add an element if there is room; safe to call from any thread
+     * @param element element to add
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) (sequence & mask), element);
+        return true;
+    }
+
+    /**
+     * Move up to max published elements into the sink; consumer thread only
+     * @param sink destination list
+     * @param max maximum number of elements to take
+     * @return number of elements taken
+     */
+    int drainTo(List<E> sink, int max) {
+        long sequence = head;
+        int taken = 0;
+        while (taken < max) {
+            int index = (int) (sequence & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            sink.add(element);
+            sequence++;
+            taken++;
+        }
+        head = sequence;
+        return taken;
+    }
+
+    long size() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.login.backend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * With the migrate profile the application exits as soon as the context is up,
+ * by which point Flyway has applied pending migrations and Hibernate has
+ * validated the schema. Used as a deploy step so app instances can start
+ * with spring.flyway.enabled=false.
+ */
+@Component
+@Profile("migrate")
+public class MigrationRunner implements ApplicationRunner {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
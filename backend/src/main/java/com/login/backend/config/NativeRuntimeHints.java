@@ -0,0 +1,21 @@
+package com.login.backend.config;
+
+import com.login.backend.dto.UserSummary;
+import com.login.backend.dto.UserVersion;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for a native image: JPQL constructor expressions
+ * ("SELECT new ...") instantiate these DTOs reflectively.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+            .registerType(UserSummary.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+            .registerType(UserVersion.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,70 @@
+package com.login.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Periodically probes the replica and measures its replay lag. While the
+ * replica is unreachable or lags more than the configured maximum, read-only
+ * transactions fall back to the primary.
+ */
+public class ReplicaHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    // Lag is 0 when everything received has been replayed; an idle primary must not look like lag
+    private static final String LAG_QUERY =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final DataSource replica;
+    private final double maxLagSeconds;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = -1;
+
+    public ReplicaHealthMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Gauge.builder("db.replica.usable", this, m -> m.usable ? 1 : 0)
+            .description("1 while read-only transactions are routed to the replica")
+            .register(meterRegistry);
+        Gauge.builder("db.replica.lag_seconds", this, m -> m.lagSeconds)
+            .description("Replica replay lag, -1 when unreachable")
+            .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Probe the replica and update the routing state
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.check-interval:1s}")
+    public void check() {
+        boolean wasUsable = usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            lagSeconds = resultSet.getDouble(1);
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (Exception e) {
+            lagSeconds = -1;
+            usable = false;
+        }
+        if (wasUsable != usable) {
+            log.warn("Replica routing {} (lag {} s)", usable ? "enabled" : "disabled, reads go to the primary", lagSeconds);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.login.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions to the replica and everything
+ * else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * decision is made at the first statement, after the transaction's read-only
+ * flag and any force-primary hint are known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicaHealthMonitor healthMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaHealthMonitor healthMonitor) {
+        this.healthMonitor = healthMonitor;
+    }
+
+    /**
+     * Send the rest of the current transaction's reads to the primary
+     */
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * Clear the force-primary hint for the current thread
+     */
+    public static void clearForcePrimary() {
+        FORCE_PRIMARY.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && FORCE_PRIMARY.get() == null
+                && healthMonitor.isReplicaUsable()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
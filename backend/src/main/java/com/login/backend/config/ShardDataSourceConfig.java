@@ -0,0 +1,138 @@
+package com.login.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One pool per shard plus a routing data source, enabled with
+ * app.datasource.shards.enabled=true. Shard i is app.datasource.shards.urls[i];
+ * the order of that list must never change, only grow. Not combinable with the
+ * read-replica setup, which defines its own routing data source.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.shards.enabled", havingValue = "true")
+@Import(ShardDataSourceConfig.ShardPoolRegistrar.class)
+public class ShardDataSourceConfig {
+
+    /**
+     * @param index shard index
+     * @return bean name of the shard's pool
+     */
+    public static String poolName(int index) {
+        return "shard" + index + "DataSource";
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(Map<String, HikariDataSource> pools, Environment environment) {
+        int count = shardUrls(environment).size();
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            targets.put(i, pools.get(poolName(i)));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(pools.get(poolName(0)));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Migrate every shard instead of only the routing data source's default.
+     * Each shard gets its own shardIndex placeholder so V9 can interleave the
+     * user id sequences.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(Map<String, HikariDataSource> pools, Environment environment) {
+        int count = shardUrls(environment).size();
+        int stride = environment.getProperty("app.datasource.shards.id-stride", Integer.class, 64);
+        if (count > stride) {
+            throw new IllegalStateException("app.datasource.shards.id-stride (" + stride
+                + ") must be at least the number of shards (" + count + ")");
+        }
+        return flyway -> {
+            for (int i = 0; i < count; i++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put("shardIndex", Integer.toString(i));
+                placeholders.put("idStride", Integer.toString(stride));
+                Flyway.configure(flyway.getConfiguration().getClassLoader())
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(pools.get(poolName(i)))
+                    .placeholders(placeholders)
+                    .load()
+                    .migrate();
+            }
+        };
+    }
+
+    private static List<String> shardUrls(Environment environment) {
+        List<String> urls = Binder.get(environment)
+            .bind("app.datasource.shards.urls", Bindable.listOf(String.class))
+            .orElse(List.of());
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("app.datasource.shards.urls must list at least one database");
+        }
+        return urls;
+    }
+
+    /**
+     * Registers shardNDataSource beans, so each pool gets Hikari metrics and
+     * shows up in the health and pool-pressure checks like any other.
+     */
+    static class ShardPoolRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void registerBeanDefinitions(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
+            List<String> urls = shardUrls(environment);
+            for (int i = 0; i < urls.size(); i++) {
+                int index = i;
+                String url = urls.get(i);
+                RootBeanDefinition definition = new RootBeanDefinition(HikariDataSource.class, () -> createPool(index, url));
+                definition.setDestroyMethodName("close");
+                registry.registerBeanDefinition(poolName(i), definition);
+            }
+        }
+
+        private HikariDataSource createPool(int index, String url) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(environment.getProperty("app.datasource.shards.username",
+                    environment.getProperty("spring.datasource.username")))
+                .password(environment.getProperty("app.datasource.shards.password",
+                    environment.getProperty("spring.datasource.password")))
+                .build();
+            Binder.get(environment).bind("app.datasource.shards.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard" + index);
+            return dataSource;
+        }
+    }
+}
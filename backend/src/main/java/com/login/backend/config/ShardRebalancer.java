@@ -0,0 +1,180 @@
+package com.login.backend.config;
+
+import com.login.backend.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * With the rebalance profile the application moves users (and their refresh
+ * tokens) whose bucket changed owner between rebalance.from-shards and
+ * rebalance.to-shards shards, then exits. Ids and token prefixes encode the
+ * bucket, not the shard, so nothing is rewritten. To shrink, keep the retired
+ * databases listed in app.datasource.shards.urls until they are drained.
+ * <p>
+ * Each batch is copied to the target in one transaction (conflicts ignored)
+ * and only then deleted from the source, so an interrupted run can simply be
+ * re-run. Run it while application instances are stopped: a write that lands
+ * on the old shard after its user was copied would be lost.
+ */
+@Component
+@Profile("rebalance")
+public class ShardRebalancer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private Map<String, HikariDataSource> pools;
+
+    @Value("${rebalance.from-shards}")
+    private int fromShards;
+
+    /** Defaults to the number of configured shard URLs */
+    @Value("${rebalance.to-shards:0}")
+    private int toShards;
+
+    @Value("${rebalance.batch-size:500}")
+    private int batchSize;
+
+    @Value("${rebalance.dry-run:false}")
+    private boolean dryRun;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!shardRouter.isEnabled()) {
+            throw new IllegalStateException("Rebalancing needs app.datasource.shards.enabled=true");
+        }
+        int configured = shardRouter.shardCount();
+        int targetShards = toShards > 0 ? toShards : configured;
+        if (fromShards < 1 || Math.max(fromShards, targetShards) > configured) {
+            throw new IllegalStateException("Both shard counts must be between 1 and the " + configured
+                + " databases in app.datasource.shards.urls");
+        }
+        int exitCode = 0;
+        try {
+            Map<String, Long> moved = rebalance(fromShards, targetShards);
+            log.info("Rebalance {} from {} to {} shards: {}", dryRun ? "(dry run)" : "finished",
+                fromShards, targetShards, moved.isEmpty() ? "nothing to move" : moved);
+        } catch (RuntimeException e) {
+            log.error("Rebalance failed; it is safe to re-run", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    /**
+     * Move every user whose shard differs between the two shard counts
+     * @param fromShards shard count the users were placed with
+     * @param toShards shard count to place them with
+     * @return users moved (or to move, in a dry run) per "source->target" pair
+     */
+    Map<String, Long> rebalance(int fromShards, int toShards) {
+        Map<String, Long> moved = new TreeMap<>();
+        for (int source = 0; source < Math.max(fromShards, toShards); source++) {
+            drain(source, toShards, moved);
+        }
+        return moved;
+    }
+
+    private void drain(int source, int toShards, Map<String, Long> moved) {
+        JdbcTemplate sourceJdbc = new JdbcTemplate(pool(source));
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<Map<String, Object>> users = sourceJdbc.queryForList(
+                "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?", lastId, batchSize);
+            if (users.isEmpty()) {
+                return;
+            }
+            lastId = ((Number) users.get(users.size() - 1).get("id")).longValue();
+
+            Map<Integer, List<Map<String, Object>>> byTarget = users.stream()
+                .filter(user -> targetOf(user, toShards) != source)
+                .collect(Collectors.groupingBy(user -> targetOf(user, toShards), TreeMap::new, Collectors.toList()));
+            for (Map.Entry<Integer, List<Map<String, Object>>> entry : byTarget.entrySet()) {
+                moved.merge(source + "->" + entry.getKey(), (long) entry.getValue().size(), Long::sum);
+                if (!dryRun) {
+                    move(source, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void move(int source, int target, List<Map<String, Object>> users) {
+        List<Object> ids = users.stream().map(user -> user.get("id")).collect(Collectors.toList());
+        String idList = String.join(",", Collections.nCopies(ids.size(), "?"));
+
+        JdbcTemplate sourceJdbc = new JdbcTemplate(pool(source));
+        List<Map<String, Object>> tokens = sourceJdbc.queryForList(
+            "SELECT * FROM refresh_tokens WHERE user_id IN (" + idList + ")", ids.toArray());
+        // Token ids come from each database's own sequence; let the target assign new ones
+        tokens.forEach(token -> token.remove("id"));
+
+        inTransaction(target, jdbc -> {
+            insertAll(jdbc, "users", users);
+            insertAll(jdbc, "refresh_tokens", tokens);
+        });
+        inTransaction(source, jdbc -> {
+            jdbc.update("DELETE FROM refresh_tokens WHERE user_id IN (" + idList + ")", ids.toArray());
+            jdbc.update("DELETE FROM users WHERE id IN (" + idList + ")", ids.toArray());
+        });
+    }
+
+    private static void insertAll(JdbcTemplate jdbc, String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+            + String.join(", ", Collections.nCopies(columns.size(), "?")) + ") ON CONFLICT DO NOTHING";
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            batch.add(columns.stream().map(row::get).toArray());
+        }
+        jdbc.batchUpdate(sql, batch);
+    }
+
+    private void inTransaction(int shard, Consumer<JdbcTemplate> work) {
+        HikariDataSource dataSource = pool(shard);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+            .executeWithoutResult(status -> work.accept(new JdbcTemplate(dataSource)));
+    }
+
+    private static int targetOf(Map<String, Object> user, int toShards) {
+        long id = ((Number) user.get("id")).longValue();
+        return ShardRouter.shardOfBucket(ShardRouter.bucketOfUserId(id), toShards);
+    }
+
+    private HikariDataSource pool(int shard) {
+        HikariDataSource pool = pools.get(ShardDataSourceConfig.poolName(shard));
+        if (pool == null) {
+            throw new IllegalStateException("No data source for shard " + shard);
+        }
+        return pool;
+    }
+}
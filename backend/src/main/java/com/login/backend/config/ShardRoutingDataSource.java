@@ -0,0 +1,43 @@
+package com.login.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the shard bound to the current thread by
+ * {@link com.login.backend.service.ShardRouter}, or to shard 0 when none is
+ * bound (auth_events and other non-user tables live there). Must sit behind
+ * a LazyConnectionDataSourceProxy so the shard can be chosen after the
+ * transaction has started but before its first statement.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    /**
+     * @return shard bound to the current thread, or null
+     */
+    public static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Bind a shard to the current thread
+     * @param shard shard index
+     */
+    public static void bind(int shard) {
+        CURRENT_SHARD.set(shard);
+    }
+
+    /**
+     * Clear the shard bound to the current thread
+     */
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+}
@@ -0,0 +1,41 @@
+package com.login.backend.controller;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.UserPageResponse;
+import com.login.backend.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@CrossOrigin(origins = "*")
+public class AdminUserController {
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * List or search users for support tooling
+     * @param active optional active-status filter
+     * @param q optional search text matched against email and full name
+     * @param match "contains" (default) or "prefix"
+     * @param cursor cursor from the previous page
+     * @param limit page size
+     * @return page of users
+     */
+    @GetMapping
+    public ResponseEntity<?> listUsers(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "contains") String match,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            UserPageResponse page = userService.listUsers(active, q, "prefix".equalsIgnoreCase(match), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(MessageResponse.of(e.getMessage(), "INVALID_CURSOR"));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.login.backend.controller;
+
+import com.login.backend.exception.AuthException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps expected auth failures to their pre-encoded responses. Handlers do
+ * no allocation and no logging; failed attempts are recorded by the audit
+ * trail instead.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(AuthException.class)
+    public ResponseEntity<byte[]> handleAuthException(AuthException e) {
+        return e.toResponse();
+    }
+}
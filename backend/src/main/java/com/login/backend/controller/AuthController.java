@@ -1,13 +1,23 @@
 package com.login.backend.controller;
 
+import com.login.backend.audit.AuthAuditService;
+import com.login.backend.audit.AuthEvent;
 import com.login.backend.dto.AuthResponse;
 import com.login.backend.dto.LoginRequest;
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
 import com.login.backend.dto.RegisterRequest;
-import com.login.backend.exception.UserAlreadyExistsException;
+import com.login.backend.exception.AuthException;
+import com.login.backend.security.LoginRateLimitFilter;
 import com.login.backend.service.AuthenticationService;
+import com.login.backend.service.EmailNormalizer;
+import com.login.backend.service.LoginRateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,29 +29,54 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AuthController {
 
+    private static final ResponseEntity<byte[]> LOGGED_OUT =
+        PreEncodedJson.response(HttpStatus.OK, MessageResponse.of("Successfully logged out"));
+
+    // Unexpected failures; expected ones (AuthException) are mapped by ApiExceptionHandler
+    private static final ResponseEntity<byte[]> REGISTRATION_FAILED =
+        PreEncodedJson.response(HttpStatus.BAD_REQUEST, MessageResponse.of("Registration failed", "REGISTRATION_ERROR"));
+
+    private static final ResponseEntity<byte[]> LOGIN_FAILED =
+        PreEncodedJson.response(HttpStatus.UNAUTHORIZED, MessageResponse.of("Login failed", "LOGIN_ERROR"));
+
+    private static final ResponseEntity<byte[]> REFRESH_FAILED =
+        PreEncodedJson.response(HttpStatus.UNAUTHORIZED, MessageResponse.of("Token refresh failed", "REFRESH_ERROR"));
+
+    private static final ResponseEntity<byte[]> LOGOUT_FAILED =
+        PreEncodedJson.response(HttpStatus.BAD_REQUEST, MessageResponse.of("Logout failed", "LOGOUT_ERROR"));
+
     @Autowired
     private AuthenticationService authenticationService;
 
+    @Autowired
+    private LoginRateLimitService rateLimitService;
+
+    @Autowired
+    private AuthAuditService auditService;
+
     /**
      * Register a new user
      * @param request registration request
      * @return authentication response with tokens
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        long start = System.nanoTime();
+        long retryAfter = rateLimitService.checkAccount(request.getEmail());
+        if (retryAfter > 0) {
+            audit(AuthEvent.Type.REGISTER, AuthEvent.Outcome.RATE_LIMITED, null, request.getEmail(), httpRequest, start);
+            return tooManyRequests(retryAfter);
+        }
         try {
             AuthResponse response = authenticationService.register(request);
+            audit(AuthEvent.Type.REGISTER, AuthEvent.Outcome.SUCCESS, response.user().id(), request.getEmail(), httpRequest, start);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (UserAlreadyExistsException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            error.put("error", "USER_ALREADY_EXISTS");
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Registration failed: " + e.getMessage());
-            error.put("error", "REGISTRATION_ERROR");
-            return ResponseEntity.badRequest().body(error);
+        } catch (AuthException e) {
+            audit(AuthEvent.Type.REGISTER, AuthEvent.Outcome.FAILURE, null, request.getEmail(), httpRequest, start);
+            throw e;
+        } catch (RuntimeException e) {
+            audit(AuthEvent.Type.REGISTER, AuthEvent.Outcome.FAILURE, null, request.getEmail(), httpRequest, start);
+            return REGISTRATION_FAILED;
         }
     }
 
@@ -51,15 +86,23 @@ public class AuthController {
      * @return authentication response with tokens
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        long start = System.nanoTime();
+        long retryAfter = rateLimitService.checkAccount(request.getEmail());
+        if (retryAfter > 0) {
+            audit(AuthEvent.Type.LOGIN, AuthEvent.Outcome.RATE_LIMITED, null, request.getEmail(), httpRequest, start);
+            return tooManyRequests(retryAfter);
+        }
         try {
             AuthResponse response = authenticationService.login(request);
+            audit(AuthEvent.Type.LOGIN, AuthEvent.Outcome.SUCCESS, response.user().id(), request.getEmail(), httpRequest, start);
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Login failed: " + e.getMessage());
-            error.put("error", "LOGIN_ERROR");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        } catch (AuthException e) {
+            audit(AuthEvent.Type.LOGIN, AuthEvent.Outcome.FAILURE, null, request.getEmail(), httpRequest, start);
+            throw e;
+        } catch (RuntimeException e) {
+            audit(AuthEvent.Type.LOGIN, AuthEvent.Outcome.FAILURE, null, request.getEmail(), httpRequest, start);
+            return LOGIN_FAILED;
         }
     }
 
@@ -69,15 +112,18 @@ public class AuthController {
      * @return new authentication response
      */
     @PostMapping("/refresh")
-    public ResponseEntity<?> refreshToken(@RequestParam String refreshToken) {
+    public ResponseEntity<?> refreshToken(@RequestParam String refreshToken, HttpServletRequest httpRequest) {
+        long start = System.nanoTime();
         try {
             AuthResponse response = authenticationService.refreshToken(refreshToken);
+            audit(AuthEvent.Type.REFRESH, AuthEvent.Outcome.SUCCESS, response.user().id(), null, httpRequest, start);
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Token refresh failed: " + e.getMessage());
-            error.put("error", "REFRESH_ERROR");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        } catch (AuthException e) {
+            audit(AuthEvent.Type.REFRESH, AuthEvent.Outcome.FAILURE, null, null, httpRequest, start);
+            throw e;
+        } catch (RuntimeException e) {
+            audit(AuthEvent.Type.REFRESH, AuthEvent.Outcome.FAILURE, null, null, httpRequest, start);
+            return REFRESH_FAILED;
         }
     }
 
@@ -87,17 +133,15 @@ public class AuthController {
      * @return success message
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestParam String refreshToken) {
+    public ResponseEntity<?> logout(@RequestParam String refreshToken, HttpServletRequest httpRequest) {
+        long start = System.nanoTime();
         try {
-            authenticationService.logout(refreshToken);
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Successfully logged out");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "Logout failed: " + e.getMessage());
-            error.put("error", "LOGOUT_ERROR");
-            return ResponseEntity.badRequest().body(error);
+            Long userId = authenticationService.logout(refreshToken);
+            audit(AuthEvent.Type.LOGOUT, AuthEvent.Outcome.SUCCESS, userId, null, httpRequest, start);
+            return LOGGED_OUT;
+        } catch (RuntimeException e) {
+            audit(AuthEvent.Type.LOGOUT, AuthEvent.Outcome.FAILURE, null, null, httpRequest, start);
+            return LOGOUT_FAILED;
         }
     }
 
@@ -113,4 +157,32 @@ public class AuthController {
         response.put("timestamp", java.time.LocalDateTime.now().toString());
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Hand an event to the asynchronous audit trail
+     * @param type event type
+     * @param outcome event outcome
+     * @param userId user id if known
+     * @param email email from the request, if any
+     * @param httpRequest current request, for client address and user agent
+     * @param start {@link System#nanoTime()} when handling started
+     */
+    private void audit(AuthEvent.Type type, AuthEvent.Outcome outcome, Long userId, String email,
+                       HttpServletRequest httpRequest, long start) {
+        auditService.record(type, outcome, userId,
+            email == null ? null : EmailNormalizer.normalize(email),
+            httpRequest.getRemoteAddr(), httpRequest.getHeader(HttpHeaders.USER_AGENT), start);
+    }
+
+    /**
+     * Build a 429 response for a rate-limited attempt
+     * @param retryAfterSeconds seconds until the next attempt is allowed
+     * @return response with Retry-After and the constant rate-limit body
+     */
+    private static ResponseEntity<byte[]> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(LoginRateLimitFilter.TOO_MANY_REQUESTS_BODY);
+    }
 }
@@ -0,0 +1,36 @@
+package com.login.backend.controller;
+
+import com.login.backend.dto.IntrospectionRequest;
+import com.login.backend.dto.IntrospectionResponse;
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.service.TokenIntrospectionService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/auth")
+public class IntrospectionController {
+
+    @Autowired
+    private TokenIntrospectionService introspectionService;
+
+    /**
+     * Introspect a batch of access tokens (RFC 7662 fields, one result per token).
+     * The caller has already been authenticated by IntrospectionClientFilter.
+     * @param request tokens to check
+     * @return results in request order
+     */
+    @PostMapping("/introspect")
+    public ResponseEntity<?> introspect(@Valid @RequestBody IntrospectionRequest request) {
+        if (request.tokens().size() > introspectionService.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().body(MessageResponse.of(
+                "At most " + introspectionService.getMaxBatchSize() + " tokens per request", "BATCH_TOO_LARGE"));
+        }
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CACHE_CONTROL, "no-store")
+            .body(new IntrospectionResponse(introspectionService.introspect(request.tokens())));
+    }
+}
@@ -1,14 +1,25 @@
 package com.login.backend.controller;
 
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import com.login.backend.dto.UserProfile;
+import com.login.backend.dto.UserVersion;
 import com.login.backend.entity.User;
+import com.login.backend.exception.UserNotFoundException;
+import com.login.backend.service.AvatarStorageService;
 import com.login.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 @RestController
@@ -16,28 +27,41 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class UserController {
 
+    private static final ResponseEntity<byte[]> ACCOUNT_DEACTIVATED =
+        PreEncodedJson.response(HttpStatus.OK, MessageResponse.of("Account deactivated successfully"));
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AvatarStorageService avatarStorageService;
+
     /**
-     * Get current user profile
-     * @return user profile
+     * Get current user profile. Honors If-None-Match/If-Modified-Since and
+     * answers 304 without loading the profile when it is unchanged; otherwise
+     * only the profile columns are read, never the password hash.
+     * @param webRequest current request, used for the conditional check
+     * @return user profile, or 304 Not Modified
      */
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String email = authentication.getName();
-            
-            User user = userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            return ResponseEntity.ok(user);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+    public ResponseEntity<?> getProfile(WebRequest webRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        
+        UserVersion version = userService.findVersionByEmail(email)
+            .orElseThrow(() -> UserNotFoundException.INSTANCE);
+        
+        // Sets ETag/Last-Modified on the response and the 304 status when the client copy is current
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
         }
+        
+        UserProfile profile = userService.findProfileByEmail(email)
+            .orElseThrow(() -> UserNotFoundException.INSTANCE);
+        
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(profile);
     }
 
     /**
@@ -52,45 +76,69 @@ public class UserController {
             String email = authentication.getName();
             
             User currentUser = userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> UserNotFoundException.INSTANCE);
             
             // Update allowed fields only
             currentUser.setFullName(user.getFullName());
             if (user.getProfilePicture() != null) {
+                // Only short links are kept on the row; image data goes through /api/user/avatar
+                if (user.getProfilePicture().length() > 500 || user.getProfilePicture().startsWith("data:")) {
+                    throw new IllegalArgumentException("Profile picture must be a URL; upload images to /api/user/avatar");
+                }
                 currentUser.setProfilePicture(user.getProfilePicture());
             }
             
             User updatedUser = userService.updateUser(currentUser);
-            return ResponseEntity.ok(updatedUser);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.ok(UserProfile.of(updatedUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(MessageResponse.of(e.getMessage()));
         }
     }
 
     /**
-     * Deactivate user account
-     * @return success message
+     * Upload a new avatar image. The image is stored by content hash and
+     * the user row only keeps the hash and its public URL.
+     * @param file multipart image upload
+     * @return avatar hash and URL
      */
-    @DeleteMapping("/profile")
-    public ResponseEntity<?> deactivateAccount() {
+    @PostMapping("/avatar")
+    public ResponseEntity<?> uploadAvatar(@RequestParam("file") MultipartFile file) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String email = authentication.getName();
             
-            User user = userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            User currentUser = userService.findByEmail(email)
+                .orElseThrow(() -> UserNotFoundException.INSTANCE);
+            
+            String hash;
+            try (InputStream content = file.getInputStream()) {
+                hash = avatarStorageService.store(content);
+            }
             
-            userService.deactivateUser(user.getId());
+            currentUser.setAvatarHash(hash);
+            currentUser.setProfilePicture(AvatarStorageService.urlFor(hash));
+            userService.updateUser(currentUser);
             
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Account deactivated successfully");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.ok(Map.of("avatarHash", hash, "profilePicture", currentUser.getProfilePicture()));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body(MessageResponse.of(e.getMessage()));
         }
     }
+
+    /**
+     * Deactivate user account
+     * @return success message
+     */
+    @DeleteMapping("/profile")
+    public ResponseEntity<?> deactivateAccount() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        
+        User user = userService.findByEmail(email)
+            .orElseThrow(() -> UserNotFoundException.INSTANCE);
+        
+        userService.deactivateUser(user.getId());
+        
+        return ACCOUNT_DEACTIVATED;
+    }
 }
@@ -4,140 +4,47 @@ import com.login.backend.entity.User;
 
 import java.time.LocalDateTime;
 
-public class AuthResponse {
-
-    private String accessToken;
-    private String refreshToken;
-    private String tokenType = "Bearer";
-    private Long expiresIn;
-    private UserDto user;
-
-    // Default constructor
-    public AuthResponse() {}
-
-    // Constructor with all fields
+/**
+ * Token pair returned by register, login and refresh.
+ * Serialized by {@link AuthResponseSerializer} rather than through bean introspection.
+ */
+public record AuthResponse(String accessToken,
+                           String refreshToken,
+                           String tokenType,
+                           Long expiresIn,
+                           UserDto user) {
+
+    public static final String BEARER = "Bearer";
+
+    // Constructor used by the authentication flows
     public AuthResponse(String accessToken, String refreshToken, Long expiresIn, User user) {
-        this.accessToken = accessToken;
-        this.refreshToken = refreshToken;
-        this.expiresIn = expiresIn;
-        this.user = new UserDto(user);
-    }
-
-    // Getters and Setters
-    public String getAccessToken() {
-        return accessToken;
-    }
-
-    public void setAccessToken(String accessToken) {
-        this.accessToken = accessToken;
-    }
-
-    public String getRefreshToken() {
-        return refreshToken;
-    }
-
-    public void setRefreshToken(String refreshToken) {
-        this.refreshToken = refreshToken;
-    }
-
-    public String getTokenType() {
-        return tokenType;
-    }
-
-    public void setTokenType(String tokenType) {
-        this.tokenType = tokenType;
-    }
-
-    public Long getExpiresIn() {
-        return expiresIn;
-    }
-
-    public void setExpiresIn(Long expiresIn) {
-        this.expiresIn = expiresIn;
-    }
-
-    public UserDto getUser() {
-        return user;
+        this(accessToken, refreshToken, BEARER, expiresIn, UserDto.from(user));
     }
 
-    public void setUser(UserDto user) {
-        this.user = user;
-    }
-
-    // Inner UserDto class to avoid circular references
-    public static class UserDto {
-        private Long id;
-        private String fullName;
-        private String email;
-        private String profilePicture;
-        private LocalDateTime createdAt;
-        private LocalDateTime updatedAt;
-
-        public UserDto(User user) {
-            this.id = user.getId();
-            this.fullName = user.getFullName();
-            this.email = user.getEmail();
-            this.profilePicture = user.getProfilePicture();
-            this.createdAt = user.getCreatedAt();
-            this.updatedAt = user.getUpdatedAt();
-        }
-
-        // Getters and Setters
-        public Long getId() {
-            return id;
-        }
-
-        public void setId(Long id) {
-            this.id = id;
-        }
-
-        public String getFullName() {
-            return fullName;
-        }
-
-        public void setFullName(String fullName) {
-            this.fullName = fullName;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public void setEmail(String email) {
-            this.email = email;
-        }
-
-        public String getProfilePicture() {
-            return profilePicture;
-        }
-
-        public void setProfilePicture(String profilePicture) {
-            this.profilePicture = profilePicture;
-        }
-
-        public LocalDateTime getCreatedAt() {
-            return createdAt;
-        }
-
-        public void setCreatedAt(LocalDateTime createdAt) {
-            this.createdAt = createdAt;
-        }
-
-        public LocalDateTime getUpdatedAt() {
-            return updatedAt;
-        }
+    // Nested user view to avoid circular references and keep the password out of responses
+    public record UserDto(Long id,
+                          String fullName,
+                          String email,
+                          String profilePicture,
+                          LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
 
-        public void setUpdatedAt(LocalDateTime updatedAt) {
-            this.updatedAt = updatedAt;
+        public static UserDto from(User user) {
+            return new UserDto(
+                user.getId(),
+                user.getFullName(),
+                user.getEmail(),
+                user.getProfilePicture(),
+                user.getCreatedAt(),
+                user.getUpdatedAt()
+            );
         }
     }
 
     @Override
     public String toString() {
         return "AuthResponse{" +
-                "accessToken='" + accessToken + '\'' +
-                ", refreshToken='" + refreshToken + '\'' +
-                ", tokenType='" + tokenType + '\'' +
+                "tokenType='" + tokenType + '\'' +
                 ", expiresIn=" + expiresIn +
                 ", user=" + user +
                 '}';
@@ -0,0 +1,88 @@
+package com.login.backend.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written writer for the fixed {@link AuthResponse} shape.
+ * Field names are pre-encoded once and the instance is stateless, so every
+ * response is written straight to the generator without bean introspection.
+ * Output is identical to Jackson's default for this record.
+ */
+@JsonComponent
+public class AuthResponseSerializer extends StdSerializer<AuthResponse> {
+
+    private static final SerializedString ACCESS_TOKEN = new SerializedString("accessToken");
+    private static final SerializedString REFRESH_TOKEN = new SerializedString("refreshToken");
+    private static final SerializedString TOKEN_TYPE = new SerializedString("tokenType");
+    private static final SerializedString EXPIRES_IN = new SerializedString("expiresIn");
+    private static final SerializedString USER = new SerializedString("user");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString FULL_NAME = new SerializedString("fullName");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString PROFILE_PICTURE = new SerializedString("profilePicture");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+
+    public AuthResponseSerializer() {
+        super(AuthResponse.class);
+    }
+
+    @Override
+    public void serialize(AuthResponse response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ACCESS_TOKEN);
+        gen.writeString(response.accessToken());
+        gen.writeFieldName(REFRESH_TOKEN);
+        gen.writeString(response.refreshToken());
+        gen.writeFieldName(TOKEN_TYPE);
+        gen.writeString(response.tokenType());
+        gen.writeFieldName(EXPIRES_IN);
+        writeNumber(gen, response.expiresIn());
+        gen.writeFieldName(USER);
+        AuthResponse.UserDto user = response.user();
+        if (user == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            gen.writeFieldName(ID);
+            writeNumber(gen, user.id());
+            gen.writeFieldName(FULL_NAME);
+            gen.writeString(user.fullName());
+            gen.writeFieldName(EMAIL);
+            gen.writeString(user.email());
+            gen.writeFieldName(PROFILE_PICTURE);
+            gen.writeString(user.profilePicture());
+            gen.writeFieldName(CREATED_AT);
+            writeDateTime(gen, user.createdAt());
+            gen.writeFieldName(UPDATED_AT);
+            writeDateTime(gen, user.updatedAt());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    // Same ISO-8601 form as spring.jackson.serialization.write-dates-as-timestamps=false
+    private static void writeDateTime(JsonGenerator gen, LocalDateTime value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
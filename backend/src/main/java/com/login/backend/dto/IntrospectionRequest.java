@@ -0,0 +1,11 @@
+package com.login.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Batch introspection request: the tokens to check, answered in the same order.
+ */
+public record IntrospectionRequest(@NotEmpty(message = "At least one token is required") List<String> tokens) {
+}
@@ -0,0 +1,28 @@
+package com.login.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Batch introspection response; results[i] describes tokens[i] of the request.
+ */
+public record IntrospectionResponse(List<Result> results) {
+
+    /**
+     * RFC 7662 token information. Inactive tokens carry only active=false,
+     * as the RFC recommends; cached tells whether the answer came from the
+     * local verified-result cache instead of a signature check.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(boolean active,
+                         String sub,
+                         Long exp,
+                         Long iat,
+                         @JsonProperty("token_type") String tokenType,
+                         boolean cached) {
+
+        public static final Result INACTIVE = new Result(false, null, null, null, null, false);
+    }
+}
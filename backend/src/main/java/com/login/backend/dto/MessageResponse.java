@@ -0,0 +1,19 @@
+package com.login.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Message/error body shared by all endpoints, replacing per-request HashMaps.
+ * The error code is omitted from the JSON when null.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MessageResponse(String message, String error) {
+
+    public static MessageResponse of(String message) {
+        return new MessageResponse(message, null);
+    }
+
+    public static MessageResponse of(String message, String error) {
+        return new MessageResponse(message, error);
+    }
+}
@@ -0,0 +1,50 @@
+package com.login.backend.dto;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds responses whose JSON body is encoded once at class-initialization time.
+ * The returned entities are never mutated by Spring MVC and are safe to share
+ * across requests; the body bytes are written as-is by the byte-array converter.
+ */
+public final class PreEncodedJson {
+
+    private PreEncodedJson() {}
+
+    /**
+     * Pre-encode a constant message body
+     * @param status response status
+     * @param body constant message body
+     * @return shareable response entity
+     */
+    public static ResponseEntity<byte[]> response(HttpStatus status, MessageResponse body) {
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(encode(body));
+    }
+
+    /**
+     * Encode a message body to UTF-8 JSON
+     * @param body message body
+     * @return JSON bytes
+     */
+    public static byte[] encode(MessageResponse body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.writeBytes("{\"message\":\"".getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(body.message()));
+        out.write('"');
+        if (body.error() != null) {
+            out.writeBytes(",\"error\":\"".getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(body.error()));
+            out.write('"');
+        }
+        out.write('}');
+        return out.toByteArray();
+    }
+}
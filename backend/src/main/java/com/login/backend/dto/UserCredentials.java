@@ -0,0 +1,8 @@
+package com.login.backend.dto;
+
+/**
+ * Columns needed to authenticate a user, read without loading the entity
+ * (and its profile picture) into the persistence context.
+ */
+public record UserCredentials(Long id, String email, String password, Boolean isActive) {
+}
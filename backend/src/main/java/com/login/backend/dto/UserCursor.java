@@ -0,0 +1,44 @@
+package com.login.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over (createdAt, id), encoded as URL-safe base64.
+ */
+public record UserCursor(LocalDateTime createdAt, long id) {
+
+    /**
+     * Cursor positioned before every row; used for the first page.
+     */
+    public static final UserCursor START = new UserCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    /**
+     * Encode this cursor for use in a query string
+     * @return opaque cursor token
+     */
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token produced by {@link #encode()}
+     * @param token cursor token, may be null or blank for the first page
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static UserCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new UserCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.login.backend.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of users. nextCursor is null on the last page.
+ */
+public class UserPageResponse {
+
+    private final List<UserSummary> items;
+    private final String nextCursor;
+
+    public UserPageResponse(List<UserSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<UserSummary> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
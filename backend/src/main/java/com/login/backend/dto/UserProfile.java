@@ -0,0 +1,33 @@
+package com.login.backend.dto;
+
+import com.login.backend.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Profile returned by /api/user/profile. Read as a constructor projection, so
+ * no entity is managed and the password hash is never selected or serialized.
+ * Only columns that bump updated_at belong here: the profile ETag is derived
+ * from it, so last login/last seen times are left out.
+ */
+public record UserProfile(
+    Long id,
+    String fullName,
+    String email,
+    String profilePicture,
+    String avatarHash,
+    Boolean isActive,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+
+    /**
+     * Profile of an already loaded user, e.g. after an update
+     * @param user user entity
+     * @return profile without the password hash
+     */
+    public static UserProfile of(User user) {
+        return new UserProfile(user.getId(), user.getFullName(), user.getEmail(), user.getProfilePicture(),
+            user.getAvatarHash(), user.getIsActive(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,55 @@
+package com.login.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Narrow user row used by the admin listing. Only carries columns that are
+ * part of idx_users_created_id_covering so list pages stay index-only.
+ */
+public class UserSummary {
+
+    private final Long id;
+    private final String fullName;
+    private final String email;
+    private final Boolean isActive;
+    private final LocalDateTime createdAt;
+
+    public UserSummary(Long id, String fullName, String email, Boolean isActive, LocalDateTime createdAt) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummary{" +
+                "id=" + id +
+                ", email='" + email + '\'' +
+                ", isActive=" + isActive +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
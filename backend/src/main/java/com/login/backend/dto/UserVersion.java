@@ -0,0 +1,29 @@
+package com.login.backend.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Version stamp of a user row, used for conditional profile requests
+ * without loading the full entity.
+ */
+public record UserVersion(Long id, LocalDateTime updatedAt) {
+
+    /**
+     * Strong ETag derived from the id and the exact update timestamp
+     * @return quoted ETag value
+     */
+    public String etag() {
+        Instant instant = updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+        return "\"" + id + "-" + instant.getEpochSecond() + "." + instant.getNano() + "\"";
+    }
+
+    /**
+     * Last-Modified value in epoch milliseconds
+     * @return update timestamp in milliseconds
+     */
+    public long lastModified() {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -35,6 +35,9 @@ public class User {
     @Column(name = "profile_picture")
     private String profilePicture;
 
+    @Column(name = "avatar_hash", length = 64)
+    private String avatarHash;
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
@@ -46,6 +49,13 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Written only by UserActivityTracker's batched flush, never by entity saves
+    @Column(name = "last_login_at", insertable = false, updatable = false)
+    private LocalDateTime lastLoginAt;
+
+    @Column(name = "last_seen_at", insertable = false, updatable = false)
+    private LocalDateTime lastSeenAt;
+
     // Default constructor
     public User() {}
 
@@ -97,6 +107,14 @@ public class User {
         this.profilePicture = profilePicture;
     }
 
+    public String getAvatarHash() {
+        return avatarHash;
+    }
+
+    public void setAvatarHash(String avatarHash) {
+        this.avatarHash = avatarHash;
+    }
+
     public Boolean getIsActive() {
         return isActive;
     }
@@ -121,6 +139,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getLastLoginAt() {
+        return lastLoginAt;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -0,0 +1,35 @@
+package com.login.backend.exception;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Base class for expected authentication failures (wrong password, unknown
+ * or expired refresh token, ...). These are control flow rather than bugs:
+ * no stack trace is captured, the common cases are shared constants, and the
+ * HTTP response is encoded once per instance. A failed attempt therefore
+ * costs no more than a successful one.
+ */
+public abstract class AuthException extends RuntimeException {
+
+    private final transient ResponseEntity<byte[]> response;
+
+    /**
+     * @param status response status
+     * @param message response message
+     * @param errorCode response error code, or null for none
+     */
+    protected AuthException(HttpStatus status, String message, String errorCode) {
+        super(message, null, false, false);
+        this.response = PreEncodedJson.response(status, MessageResponse.of(message, errorCode));
+    }
+
+    /**
+     * @return shareable pre-encoded error response
+     */
+    public ResponseEntity<byte[]> toResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,15 @@
+package com.login.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Unknown email, inactive account or wrong password; deliberately indistinguishable
+ */
+public final class InvalidCredentialsException extends AuthException {
+
+    public static final InvalidCredentialsException INSTANCE = new InvalidCredentialsException();
+
+    private InvalidCredentialsException() {
+        super(HttpStatus.UNAUTHORIZED, "Login failed: Bad credentials", "LOGIN_ERROR");
+    }
+}
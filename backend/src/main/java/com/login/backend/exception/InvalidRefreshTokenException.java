@@ -0,0 +1,19 @@
+package com.login.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Refresh token that cannot be exchanged for new tokens
+ */
+public final class InvalidRefreshTokenException extends AuthException {
+
+    public static final InvalidRefreshTokenException NOT_FOUND =
+        new InvalidRefreshTokenException("Token refresh failed: Refresh token not found");
+
+    public static final InvalidRefreshTokenException EXPIRED_OR_REVOKED =
+        new InvalidRefreshTokenException("Token refresh failed: Refresh token was expired or revoked. Please make a new signin request");
+
+    private InvalidRefreshTokenException(String message) {
+        super(HttpStatus.UNAUTHORIZED, message, "REFRESH_ERROR");
+    }
+}
@@ -1,15 +1,15 @@
 package com.login.backend.exception;
 
+import org.springframework.http.HttpStatus;
+
 /**
  * Exception thrown when attempting to register a user with an email that already exists
  */
-public class UserAlreadyExistsException extends RuntimeException {
-    
-    public UserAlreadyExistsException(String message) {
-        super(message);
-    }
-    
-    public UserAlreadyExistsException(String message, Throwable cause) {
-        super(message, cause);
+public final class UserAlreadyExistsException extends AuthException {
+
+    public static final UserAlreadyExistsException INSTANCE = new UserAlreadyExistsException();
+
+    private UserAlreadyExistsException() {
+        super(HttpStatus.CONFLICT, "User with this email already exists", "USER_ALREADY_EXISTS");
     }
 }
@@ -0,0 +1,15 @@
+package com.login.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The authenticated user no longer exists or was deactivated
+ */
+public final class UserNotFoundException extends AuthException {
+
+    public static final UserNotFoundException INSTANCE = new UserNotFoundException();
+
+    private UserNotFoundException() {
+        super(HttpStatus.BAD_REQUEST, "User not found", null);
+    }
+}
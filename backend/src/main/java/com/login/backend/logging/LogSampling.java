@@ -0,0 +1,20 @@
+package com.login.backend.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampling for high-volume log events such as successful logins.
+ */
+public final class LogSampling {
+
+    private LogSampling() {
+    }
+
+    /**
+     * @param oneIn sampling rate; 1 or less keeps every event
+     * @return true for roughly one call in oneIn
+     */
+    public static boolean oneIn(int oneIn) {
+        return oneIn <= 1 || ThreadLocalRandom.current().nextInt(oneIn) == 0;
+    }
+}
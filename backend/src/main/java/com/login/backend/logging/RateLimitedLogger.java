@@ -0,0 +1,69 @@
+package com.login.backend.logging;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Error/warning logger that emits at most maxPerInterval messages per interval.
+ * Messages over the limit are counted, and the count is reported with the next
+ * emitted message, so a failing dependency cannot flood the log (or the async
+ * appender queue) with stack traces.
+ */
+public final class RateLimitedLogger {
+
+    private final Logger delegate;
+    private final int maxPerInterval;
+    private final long intervalNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger emittedInWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param delegate logger to write to
+     * @param maxPerInterval messages allowed per interval
+     * @param interval length of the rate window
+     */
+    public RateLimitedLogger(Logger delegate, int maxPerInterval, Duration interval) {
+        this.delegate = delegate;
+        this.maxPerInterval = maxPerInterval;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void error(String message, Throwable error) {
+        if (delegate.isErrorEnabled() && tryAcquire()) {
+            long skipped = suppressed.getAndSet(0);
+            if (skipped > 0) {
+                delegate.error("{} ({} similar messages suppressed)", message, skipped, error);
+            } else {
+                delegate.error(message, error);
+            }
+        }
+    }
+
+    public void warn(String message, Throwable error) {
+        if (delegate.isWarnEnabled() && tryAcquire()) {
+            long skipped = suppressed.getAndSet(0);
+            if (skipped > 0) {
+                delegate.warn("{} ({} similar messages suppressed): {}", message, skipped, error.toString());
+            } else {
+                delegate.warn("{}: {}", message, error.toString());
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            emittedInWindow.set(0);
+        }
+        if (emittedInWindow.incrementAndGet() <= maxPerInterval) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
@@ -23,12 +23,14 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     Optional<RefreshToken> findByToken(@Param("token") String token);
 
     /**
-     * Find refresh token by user
-     * @param user user entity
-     * @return Optional containing refresh token if found
+     * Revoke a token only if it is still active. The row lock makes this the
+     * single winner among concurrent rotations of the same token, across nodes.
+     * @param token refresh token value
+     * @return 1 if this call revoked it, 0 if it was already revoked or is unknown
      */
-    @Query("SELECT rt FROM RefreshToken rt WHERE rt.user = :user")
-    Optional<RefreshToken> findByUser(@Param("user") User user);
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.token = :token AND rt.isRevoked = false")
+    int revokeIfActive(@Param("token") String token);
 
     /**
      * Delete all expired refresh tokens
@@ -39,12 +41,13 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     void deleteExpiredTokens(@Param("now") LocalDateTime now);
 
     /**
-     * Revoke all refresh tokens for a user
+     * Revoke all active refresh tokens for a user
      * @param user user entity
+     * @return number of tokens revoked
      */
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.user = :user")
-    void revokeAllTokensForUser(@Param("user") User user);
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.user = :user AND rt.isRevoked = false")
+    int revokeAllTokensForUser(@Param("user") User user);
 
     /**
      * Delete all refresh tokens for a user
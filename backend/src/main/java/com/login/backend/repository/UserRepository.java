@@ -1,38 +1,170 @@
 package com.login.backend.repository;
 
+import com.login.backend.dto.UserCredentials;
+import com.login.backend.dto.UserProfile;
+import com.login.backend.dto.UserSummary;
+import com.login.backend.dto.UserVersion;
 import com.login.backend.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Email lookups compare LOWER(email) with an already-normalized parameter
+    // (see EmailNormalizer), so each one is a single probe of ux_users_email_lower.
+
     /**
      * Find user by email
-     * @param email user's email
+     * @param email normalized email
      * @return Optional containing user if found
      */
-    @Query("SELECT u FROM User u WHERE u.email = :email")
+    @Query("SELECT u FROM User u WHERE LOWER(u.email) = :email")
     Optional<User> findByEmail(@Param("email") String email);
 
     /**
      * Check if user exists by email
-     * @param email user's email
+     * @param email normalized email
      * @return true if user exists, false otherwise
      */
-    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.email = :email")
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE LOWER(u.email) = :email")
     boolean existsByEmail(@Param("email") String email);
 
     /**
      * Find user by email and isActive status
-     * @param email user's email
+     * @param email normalized email
      * @param isActive user's active status
      * @return Optional containing user if found
      */
-    @Query("SELECT u FROM User u WHERE u.email = :email AND u.isActive = :isActive")
+    @Query("SELECT u FROM User u WHERE LOWER(u.email) = :email AND u.isActive = :isActive")
     Optional<User> findByEmailAndIsActive(@Param("email") String email, @Param("isActive") Boolean isActive);
+
+    /**
+     * Find the version stamp (id, updatedAt) of an active user without loading the entity
+     * @param email normalized email
+     * @return Optional containing the version stamp if found
+     */
+    @Query("SELECT new com.login.backend.dto.UserVersion(u.id, u.updatedAt) FROM User u WHERE LOWER(u.email) = :email AND u.isActive = true")
+    Optional<UserVersion> findVersionByEmail(@Param("email") String email);
+
+    /**
+     * Find the profile of an active user, selecting only the profile columns
+     * @param email normalized email
+     * @return Optional containing the profile if found
+     */
+    @Query("SELECT new com.login.backend.dto.UserProfile(u.id, u.fullName, u.email, u.profilePicture, u.avatarHash, " +
+           "u.isActive, u.createdAt, u.updatedAt) " +
+           "FROM User u WHERE LOWER(u.email) = :email AND u.isActive = true")
+    Optional<UserProfile> findProfileByEmail(@Param("email") String email);
+
+    /**
+     * Find the credentials of an active user by email
+     * @param email normalized email
+     * @return Optional containing id, email, password hash and active flag if found
+     */
+    @Query("SELECT new com.login.backend.dto.UserCredentials(u.id, u.email, u.password, u.isActive) " +
+           "FROM User u WHERE LOWER(u.email) = :email AND u.isActive = true")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    /**
+     * Find the credentials of an active user by id (subject of compact access tokens)
+     * @param id user id
+     * @return Optional containing id, email, password hash and active flag if found
+     */
+    @Query("SELECT new com.login.backend.dto.UserCredentials(u.id, u.email, u.password, u.isActive) " +
+           "FROM User u WHERE u.id = :id AND u.isActive = true")
+    Optional<UserCredentials> findCredentialsById(@Param("id") Long id);
+
+    /**
+     * Insert a user in one round trip unless the normalized email is taken.
+     * The conflict target is the unique index on lower(email), so concurrent
+     * registrations for the same address cannot both succeed.
+     * @param fullName user's full name
+     * @param email normalized email
+     * @param password encoded password
+     * @param now creation/update timestamp
+     * @param idMultiplier id = nextval * idMultiplier + idBucket (1 and 0 when unsharded)
+     * @param idBucket shard bucket encoded in the id
+     * @return Optional containing the inserted user, empty if the email already exists
+     */
+    @Query(value = "INSERT INTO users (id, full_name, email, password, is_active, created_at, updated_at) " +
+                   "VALUES (nextval('users_id_seq') * :idMultiplier + :idBucket, :fullName, :email, :password, true, :now, :now) " +
+                   "ON CONFLICT ((lower(email))) DO NOTHING " +
+                   "RETURNING *", nativeQuery = true)
+    Optional<User> insertIfEmailAbsent(@Param("fullName") String fullName,
+                                       @Param("email") String email,
+                                       @Param("password") String password,
+                                       @Param("now") LocalDateTime now,
+                                       @Param("idMultiplier") long idMultiplier,
+                                       @Param("idBucket") int idBucket);
+
+    /**
+     * Emails of users created after the given time, for the registered-email
+     * filter's catch-up pass. Served by idx_users_created_id_covering.
+     * @param since exclusive lower bound on createdAt
+     * @return emails of recently created users
+     */
+    @Query("SELECT u.email FROM User u WHERE u.createdAt > :since")
+    List<String> findEmailsCreatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Stream every email in the table, fetched from the server in batches.
+     * Must be consumed inside a transaction and closed after use.
+     * @return stream of emails
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    /**
+     * List users ordered newest first, seeking past the given (createdAt, id) cursor.
+     * Served by idx_users_created_id_covering as an index-only scan, so the cost
+     * does not grow with the page depth.
+     * @param createdAt createdAt of the last row of the previous page
+     * @param id id of the last row of the previous page
+     * @param activeStates accepted isActive values
+     * @param pageable page size (offset is always 0)
+     * @return next page of user summaries
+     */
+    @Query("SELECT new com.login.backend.dto.UserSummary(u.id, u.fullName, u.email, u.isActive, u.createdAt) " +
+           "FROM User u " +
+           "WHERE (u.createdAt, u.id) < (:createdAt, :id) AND u.isActive IN :activeStates " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserSummary> findPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     @Param("activeStates") Collection<Boolean> activeStates,
+                                     Pageable pageable);
+
+    /**
+     * Search users by case-insensitive LIKE pattern on email or full name, keyset-paginated.
+     * The lower(email)/lower(full_name) trigram indexes serve both prefix and substring patterns.
+     * @param pattern lower-cased LIKE pattern, with wildcards applied and backslash-escaped
+     * @param createdAt createdAt of the last row of the previous page
+     * @param id id of the last row of the previous page
+     * @param activeStates accepted isActive values
+     * @param pageable page size (offset is always 0)
+     * @return next page of matching user summaries
+     */
+    @Query("SELECT new com.login.backend.dto.UserSummary(u.id, u.fullName, u.email, u.isActive, u.createdAt) " +
+           "FROM User u " +
+           "WHERE (LOWER(u.email) LIKE :pattern ESCAPE '\\' OR LOWER(u.fullName) LIKE :pattern ESCAPE '\\') " +
+           "AND (u.createdAt, u.id) < (:createdAt, :id) AND u.isActive IN :activeStates " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserSummary> searchPageBefore(@Param("pattern") String pattern,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       @Param("activeStates") Collection<Boolean> activeStates,
+                                       Pageable pageable);
 }
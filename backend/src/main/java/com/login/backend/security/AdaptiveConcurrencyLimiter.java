@@ -0,0 +1,158 @@
+package com.login.backend.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows observed latency, after the gradient
+ * algorithm of Netflix's concurrency-limits (Gradient2). Each window's mean
+ * latency is compared with a slow-moving long-term mean: while they match the
+ * limit grows by about sqrt(limit), and as the window latency rises above the
+ * long-term one (requests queueing on CPU or the database) the limit shrinks
+ * proportionally, down to half per window. The long-term mean drifts down
+ * when latency recovers, so a past slow period does not pin the limit high.
+ * Admission is a CAS on the in-flight count and samples go into striped
+ * counters; only the thread that rolls a window over takes the lock.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longWindowWeight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    /** Samples of the current window; replaced, not reset, when it rolls over */
+    private static final class Window {
+        final long start;
+        final LongAdder rttSum = new LongAdder();
+        final LongAdder samples = new LongAdder();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window(System.nanoTime()));
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    /**
+     * @param initialLimit starting limit
+     * @param minLimit lowest limit
+     * @param maxLimit highest limit
+     * @param windowNanos minimum length of a sampling window
+     * @param tolerance window latency may exceed the long-term mean by this factor before the limit shrinks
+     * @param smoothing weight of each window's new estimate, in (0, 1]
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowNanos,
+                                      double tolerance, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit
+                || windowNanos <= 0 || tolerance < 1 || smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Invalid concurrency limiter settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = 10;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWindowWeight = 1.0 / 600;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Admit a request if fewer than the current limit are in flight
+     * @return true if admitted; the caller must then call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finish an admitted request and feed its latency into the estimate
+     * @param latencyNanos time the request spent in flight
+     * @param sample false to release without learning from it (e.g. failed requests)
+     */
+    public void release(long latencyNanos, boolean sample) {
+        int before = inFlight.getAndDecrement();
+        if (sample) {
+            record(latencyNanos, before);
+        }
+    }
+
+    private void record(long latencyNanos, int inFlightAtEnd) {
+        Window current = window.get();
+        current.rttSum.add(latencyNanos);
+        current.samples.increment();
+        if (current.maxInFlight.get() < inFlightAtEnd) {
+            current.maxInFlight.accumulateAndGet(inFlightAtEnd, Math::max);
+        }
+        long now = System.nanoTime();
+        if (now - current.start < windowNanos || current.samples.sum() < minWindowSamples) {
+            return;
+        }
+        // One thread wins the roll-over; samples landing in the old window after this are dropped
+        if (window.compareAndSet(current, new Window(now))) {
+            update(current);
+        }
+    }
+
+    private synchronized void update(Window closed) {
+        double shortRtt = (double) closed.rttSum.sum() / closed.samples.sum();
+        int maxInFlight = closed.maxInFlight.get();
+
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) * longWindowWeight;
+        }
+        // Latency recovered well below the long-term mean: let the baseline catch up
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        // Demand did not reach the limit; the window says nothing about a higher one
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRtt));
+        double queueAllowance = Math.sqrt(estimatedLimit);
+        double next = estimatedLimit * gradient + queueAllowance;
+        next = estimatedLimit * (1 - smoothing) + next * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return requests currently in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
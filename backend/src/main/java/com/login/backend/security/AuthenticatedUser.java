@@ -0,0 +1,25 @@
+package com.login.backend.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security principal that also carries the database id, so per-request
+ * bookkeeping keyed by user id needs no extra lookup.
+ */
+public class AuthenticatedUser extends User {
+
+    private final long id;
+
+    public AuthenticatedUser(long id, String username, String password, boolean enabled,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,127 @@
+package com.login.backend.security;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Caps concurrent requests to /api/auth/** and /api/user/** with an
+ * {@link AdaptiveConcurrencyLimiter}, answering an immediate 503 above the
+ * limit instead of letting requests queue on CPU or the connection pool.
+ * Login and registration (a BCrypt hash each) have their own limiter so a
+ * burst of them cannot crowd out cheap token and profile requests. Runs after
+ * rate limiting, so throttled clients do not take up a slot.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] OVERLOADED_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Service is busy, please retry shortly", "OVERLOADED"));
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter heavy;
+    private final AdaptiveConcurrencyLimiter light;
+    private final Counter heavyRejected;
+    private final Counter lightRejected;
+
+    public ConcurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${concurrency-limit.heavy.initial:16}") int heavyInitial,
+            @Value("${concurrency-limit.heavy.min:4}") int heavyMin,
+            @Value("${concurrency-limit.heavy.max:64}") int heavyMax,
+            @Value("${concurrency-limit.light.initial:100}") int lightInitial,
+            @Value("${concurrency-limit.light.min:10}") int lightMin,
+            @Value("${concurrency-limit.light.max:1000}") int lightMax,
+            @Value("${concurrency-limit.window:100ms}") Duration window,
+            @Value("${concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${concurrency-limit.smoothing:0.2}") double smoothing
+    ) {
+        this.enabled = enabled;
+        this.heavy = new AdaptiveConcurrencyLimiter(heavyInitial, heavyMin, heavyMax, window.toNanos(), tolerance, smoothing);
+        this.light = new AdaptiveConcurrencyLimiter(lightInitial, lightMin, lightMax, window.toNanos(), tolerance, smoothing);
+        this.heavyRejected = register(meterRegistry, "heavy", heavy);
+        this.lightRejected = register(meterRegistry, "light", light);
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String limiterName, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("limiter", limiterName)
+            .register(meterRegistry);
+        Gauge.builder("http.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Requests currently admitted by the concurrency limiter")
+            .tag("limiter", limiterName)
+            .register(meterRegistry);
+        return Counter.builder("http.concurrency.rejected")
+            .description("Requests rejected above the concurrency limit")
+            .tag("limiter", limiterName)
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/auth/") && !path.startsWith("/api/user/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        boolean isHeavy = isHeavy(request);
+        AdaptiveConcurrencyLimiter limiter = isHeavy ? heavy : light;
+        if (!limiter.tryAcquire()) {
+            (isHeavy ? heavyRejected : lightRejected).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(OVERLOADED_BODY.length);
+            response.getOutputStream().write(OVERLOADED_BODY);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            // Failures are often fast and would teach the limiter that the service is healthy
+            boolean sample = completed && response.getStatus() < 500;
+            limiter.release(System.nanoTime() - start, sample);
+        }
+    }
+
+    /**
+     * Heavy: requests that hash a password
+     * @param request current request
+     * @return true for login and registration
+     */
+    private static boolean isHeavy(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return "POST".equals(request.getMethod())
+            && (path.equals("/api/auth/login") || path.equals("/api/auth/register"));
+    }
+}
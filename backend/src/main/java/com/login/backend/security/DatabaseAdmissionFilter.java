@@ -0,0 +1,81 @@
+package com.login.backend.security;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import com.login.backend.service.DatabasePressureMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds low-priority work with an immediate 503 while the connection pool is
+ * pressured, instead of letting it queue for a connection. Runs before the
+ * security chain, so rejected requests cost no token validation query.
+ * Login, refresh, registration, token validation and profile reads are always admitted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class DatabaseAdmissionFilter extends OncePerRequestFilter {
+
+    private static final byte[] OVERLOADED_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Service is busy, please retry shortly", "OVERLOADED"));
+
+    @Autowired
+    private DatabasePressureMonitor pressureMonitor;
+
+    private final Counter rejected;
+
+    public DatabaseAdmissionFilter(MeterRegistry meterRegistry) {
+        this.rejected = Counter.builder("db.admission.rejected")
+            .description("Low-priority requests rejected while the connection pool was pressured")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isLowPriority(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (pressureMonitor.isPressured()) {
+            rejected.increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(OVERLOADED_BODY.length);
+            response.getOutputStream().write(OVERLOADED_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Low priority: admin tooling and profile/avatar changes
+     * @param request current request
+     * @return true if the request may be shed under pressure
+     */
+    private static boolean isLowPriority(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/admin/")) {
+            return true;
+        }
+        return path.startsWith("/api/user/") && !"GET".equals(request.getMethod());
+    }
+}
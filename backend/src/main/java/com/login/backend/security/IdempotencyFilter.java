@@ -0,0 +1,239 @@
+package com.login.backend.security;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import com.login.backend.service.IdempotencyService;
+import com.login.backend.service.IdempotentResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays the first response to POST /api/auth/register and /api/auth/refresh
+ * for retries that carry the same Idempotency-Key, without running the
+ * controller again. A stored response is only replayed to a request with the
+ * same body (which holds the password or refresh token), so a key alone never
+ * reveals another client's tokens. Runs before rate limiting: a replay costs
+ * nothing and should not use up the client's attempts.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final byte[] INVALID_KEY_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Idempotency-Key must be 1-255 visible ASCII characters", "IDEMPOTENCY_KEY_INVALID"));
+
+    private static final byte[] KEY_REUSED_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Idempotency-Key was already used for a different request", "IDEMPOTENCY_KEY_REUSED"));
+
+    private static final byte[] IN_PROGRESS_BODY =
+        PreEncodedJson.encode(MessageResponse.of("A request with this Idempotency-Key is still in progress", "IDEMPOTENCY_IN_PROGRESS"));
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Value("${idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${idempotency.wait-timeout:10s}")
+    private Duration waitTimeout;
+
+    @Value("${idempotency.max-request-size:16KB}")
+    private DataSize maxRequestSize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !path.equals("/api/auth/register") && !path.equals("/api/auth/refresh");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (!isWellFormed(key)) {
+            write(response, 400, MediaType.APPLICATION_JSON_VALUE, INVALID_KEY_BODY);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes((int) maxRequestSize.toBytes() + 1);
+        if (body.length > maxRequestSize.toBytes()) {
+            // Too large to fingerprint cheaply; not something these endpoints receive from real clients
+            filterChain.doFilter(new CachedBodyRequest(request,
+                new SequenceInputStream(new ByteArrayInputStream(body), request.getInputStream())), response);
+            return;
+        }
+        HttpServletRequest replayable = new CachedBodyRequest(request, new ByteArrayInputStream(body));
+
+        String scopedKey = request.getRequestURI() + " " + key;
+        byte[] fingerprint = idempotencyService.fingerprint(request.getMethod(), request.getRequestURI(), body);
+        CompletableFuture<IdempotentResponse> first = idempotencyService.claim(scopedKey);
+        if (first != null) {
+            IdempotentResponse stored;
+            try {
+                stored = first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                write(response, 409, MediaType.APPLICATION_JSON_VALUE, IN_PROGRESS_BODY);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored == null) {
+                // The first attempt ended without a replayable response; run this one normally
+                filterChain.doFilter(replayable, response);
+                return;
+            }
+            if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+                write(response, 422, MediaType.APPLICATION_JSON_VALUE, KEY_REUSED_BODY);
+                return;
+            }
+            response.setHeader(REPLAYED_HEADER, "true");
+            write(response, stored.status(), stored.contentType(), stored.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        IdempotentResponse result = null;
+        try {
+            filterChain.doFilter(replayable, captured);
+            int status = captured.getStatus();
+            // Server errors and rate limiting are transient; the client should be able to retry for real
+            if (status < 500 && status != 429) {
+                result = new IdempotentResponse(fingerprint, status, captured.getContentType(),
+                    captured.getContentAsByteArray(),
+                    System.currentTimeMillis() + idempotencyService.getTtl().toMillis());
+            }
+        } finally {
+            idempotencyService.complete(scopedKey, result);
+            captured.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isWellFormed(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7E) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void write(HttpServletResponse response, int status, String contentType, byte[] body) throws IOException {
+        response.setStatus(status);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Request whose body was read up front, so it can be fingerprinted and
+     * still parsed by the controller. Also used by {@link IntrospectionClientFilter}.
+     */
+    static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final BodyStream body;
+
+        CachedBodyRequest(HttpServletRequest request, InputStream body) {
+            super(request);
+            this.body = new BodyStream(body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(body,
+                encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+
+    private static final class BodyStream extends ServletInputStream {
+
+        private final InputStream in;
+        private boolean finished;
+
+        BodyStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("Synchronous reads only");
+        }
+    }
+}
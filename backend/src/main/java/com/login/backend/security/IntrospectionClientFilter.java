@@ -0,0 +1,95 @@
+package com.login.backend.security;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import com.login.backend.service.LoginRateLimitService;
+import com.login.backend.service.TokenIntrospectionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Authenticates the HTTP Basic client of POST /api/auth/introspect before its
+ * body is read, so unauthenticated callers cannot make the server buffer and
+ * parse a token batch. Failed authentications are counted per client IP by
+ * {@link LoginRateLimitService}; an IP that used them up gets 429 without its
+ * credentials being checked. The body of an authenticated call is capped at
+ * introspection.max-request-size.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 12)
+public class IntrospectionClientFilter extends OncePerRequestFilter {
+
+    private static final byte[] UNAUTHORIZED_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Client authentication failed", "INVALID_CLIENT"));
+
+    private static final byte[] TOO_LARGE_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Request body too large", "REQUEST_TOO_LARGE"));
+
+    @Autowired
+    private TokenIntrospectionService introspectionService;
+
+    @Autowired
+    private LoginRateLimitService rateLimitService;
+
+    @Value("${introspection.max-request-size:64KB}")
+    private DataSize maxRequestSize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !request.getRequestURI().equals("/api/auth/introspect");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        String clientIp = request.getRemoteAddr();
+        long retryAfter = rateLimitService.checkIntrospectionClient(clientIp);
+        if (retryAfter > 0) {
+            LoginRateLimitFilter.writeTooManyRequests(response, retryAfter);
+            return;
+        }
+        if (!introspectionService.isAuthorizedClient(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            rateLimitService.recordIntrospectionFailure(clientIp);
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"introspection\"");
+            write(response, 401, UNAUTHORIZED_BODY);
+            return;
+        }
+
+        long limit = maxRequestSize.toBytes();
+        if (request.getContentLengthLong() > limit) {
+            write(response, 413, TOO_LARGE_BODY);
+            return;
+        }
+        // Content-Length may be absent (chunked), so the read itself is bounded too
+        byte[] body = request.getInputStream().readNBytes((int) limit + 1);
+        if (body.length > limit) {
+            write(response, 413, TOO_LARGE_BODY);
+            return;
+        }
+        filterChain.doFilter(new IdempotencyFilter.CachedBodyRequest(request, new ByteArrayInputStream(body)), response);
+    }
+
+    private static void write(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
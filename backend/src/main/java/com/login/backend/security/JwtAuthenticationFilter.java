@@ -1,6 +1,10 @@
 package com.login.backend.security;
 
+import com.login.backend.service.CustomUserDetailsService;
 import com.login.backend.service.JwtService;
+import com.login.backend.service.UserActivityTracker;
+import com.login.backend.service.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,7 +27,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtService jwtService;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserActivityTracker userActivityTracker;
 
     @Override
     protected void doFilterInternal(
@@ -34,7 +41,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -42,12 +48,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        VerifiedToken token;
+        try {
+            // One parse checks signature and expiry
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
         
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (token.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Compact and binary tokens name the user by id, standard ones by email;
+            // both are accepted so the issued format can change without a forced logout
+            UserDetails userDetails;
+            try {
+                userDetails = token.userId() != null
+                    ? this.userDetailsService.loadUserById(token.userId())
+                    : this.userDetailsService.loadUserByUsername(token.subject());
+            } catch (UsernameNotFoundException e) {
+                filterChain.doFilter(request, response);
+                return;
+            }
             
-            if (jwtService.validateToken(jwt, userDetails)) {
+            if (matches(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                     userDetails,
                     null,
@@ -57,8 +80,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+                    userActivityTracker.recordSeen(authenticatedUser.getId());
+                }
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private static boolean matches(VerifiedToken token, UserDetails userDetails) {
+        if (token.userId() != null) {
+            return userDetails instanceof AuthenticatedUser authenticatedUser
+                && token.userId() == authenticatedUser.getId();
+        }
+        return token.subject().equals(userDetails.getUsername());
+    }
 }
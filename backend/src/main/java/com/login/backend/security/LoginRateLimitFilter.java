@@ -0,0 +1,70 @@
+package com.login.backend.security;
+
+import com.login.backend.dto.MessageResponse;
+import com.login.backend.dto.PreEncodedJson;
+import com.login.backend.service.LoginRateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects login/register bursts from one client IP before the request body
+ * is parsed or the security chain runs. Per-account limits are applied in
+ * AuthController once the email is known.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    public static final byte[] TOO_MANY_REQUESTS_BODY =
+        PreEncodedJson.encode(MessageResponse.of("Too many attempts, please retry later", "RATE_LIMITED"));
+
+    @Autowired
+    private LoginRateLimitService rateLimitService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !path.equals("/api/auth/login") && !path.equals("/api/auth/register");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        long retryAfter = rateLimitService.checkClient(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            writeTooManyRequests(response, retryAfter);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Write a 429 response with a Retry-After header and a constant body
+     * @param response servlet response
+     * @param retryAfterSeconds seconds until the next attempt is allowed
+     */
+    public static void writeTooManyRequests(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+    }
+}
@@ -0,0 +1,72 @@
+package com.login.backend.security;
+
+import com.login.backend.service.ReadinessProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers GET /livez and /readyz before any other filter, so orchestrator
+ * probes skip correlation ids, rate limiting, Spring Security and Spring MVC.
+ * Liveness is a constant; readiness is the cached ReadinessProbe result
+ * (503 while not ready).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProbeFilter extends OncePerRequestFilter {
+
+    public static final String LIVENESS_PATH = "/livez";
+    public static final String READINESS_PATH = "/readyz";
+
+    private static final byte[] LIVE_BODY = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ReadinessProbe readinessProbe;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.equals(LIVENESS_PATH) && !path.equals(READINESS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            response.setStatus(405);
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            return;
+        }
+        if (request.getRequestURI().equals(LIVENESS_PATH)) {
+            write(request, response, 200, LIVE_BODY);
+            return;
+        }
+        ReadinessProbe.Result readiness = readinessProbe.current();
+        write(request, response, readiness.ready() ? 200 : 503, readiness.body());
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, int status, byte[] body)
+            throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentLength(body.length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.login.backend.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token-bucket limiter in its GCRA form: each bucket is a single
+ * "theoretical arrival time" updated by CAS, so admission is lock-free and
+ * allocates nothing for known keys. A bucket whose arrival time is in the past
+ * is full again and indistinguishable from a new one, which makes idle eviction
+ * lossless. The key map is bounded; when it is full of active buckets, new
+ * keys share one overflow bucket with the same rate, so rotating keys to fill
+ * the map throttles the attacker instead of lifting the limit.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong overflowBucket = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong overflow = new AtomicLong();
+
+    /**
+     * @param permits tokens refilled per period
+     * @param periodNanos refill period in nanoseconds
+     * @param burst bucket capacity
+     * @param maxKeys maximum number of tracked keys
+     */
+    public TokenBucketRateLimiter(long permits, long periodNanos, long burst, int maxKeys) {
+        if (permits <= 0 || periodNanos <= 0 || burst <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Rate limiter settings must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, periodNanos / permits);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Try to take one token for the key
+     * @param key bucket key
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return 0 if admitted, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evictIdle(nowNanos);
+                if (buckets.size() >= maxKeys) {
+                    overflow.incrementAndGet();
+                    return acquire(overflowBucket, nowNanos);
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+        return acquire(bucket, nowNanos);
+    }
+
+    /**
+     * Check whether the key would be limited, without taking a token
+     * @param key bucket key
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return 0 if a token is available, otherwise nanoseconds until one is
+     */
+    public long waitNanos(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // An untracked key either has a full bucket or was sent to the overflow bucket
+            if (buckets.size() < maxKeys) {
+                return 0;
+            }
+            bucket = overflowBucket;
+        }
+        return Math.max(0, Math.max(bucket.get(), nowNanos) + emissionIntervalNanos - nowNanos - burstToleranceNanos);
+    }
+
+    private long acquire(AtomicLong bucket, long nowNanos) {
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Remove buckets that have fully refilled. Only one caller sweeps at a time.
+     * @param nowNanos current {@link System#nanoTime()}
+     */
+    public void evictIdle(long nowNanos) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    /**
+     * @return requests for untracked keys, limited through the shared overflow bucket
+     */
+    public long overflowCount() {
+        return overflow.get();
+    }
+}
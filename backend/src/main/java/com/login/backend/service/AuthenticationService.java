@@ -5,44 +5,110 @@ import com.login.backend.dto.LoginRequest;
 import com.login.backend.dto.RegisterRequest;
 import com.login.backend.entity.RefreshToken;
 import com.login.backend.entity.User;
+import com.login.backend.exception.AuthException;
+import com.login.backend.exception.InvalidCredentialsException;
+import com.login.backend.exception.InvalidRefreshTokenException;
+import com.login.backend.logging.LogSampling;
+import com.login.backend.logging.RateLimitedLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-@Transactional
 public class AuthenticationService {
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+
+    private static final RateLimitedLogger errorLog = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
     @Autowired
     private JwtService jwtService;
 
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private UserActivityTracker userActivityTracker;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${logging.sampling.login-success:100}")
+    private int loginSuccessSampleRate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${refresh.grace-window:10s}")
+    private Duration graceWindow;
+
+    @Value("${refresh.grace-max-entries:100000}")
+    private int graceMaxEntries;
+
+    // Checked against when the user does not exist, so unknown emails cost one hash like known ones
+    private String dummyPasswordHash;
+
+    /** Response of the last rotation of a refresh token, keyed by the old token */
+    private record RotatedTokens(AuthResponse response, long rotatedAt) {}
+
+    private final ConcurrentHashMap<String, CompletableFuture<AuthResponse>> rotationsInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RotatedTokens> recentRotations = new ConcurrentHashMap<>();
+
+    private TransactionTemplate rotationTransaction;
+    private Counter rotated;
+    private Counter coalesced;
+    private Counter graceHits;
+
+    @PostConstruct
+    void init() {
+        dummyPasswordHash = passwordEncoder.encode("timing-equalization-only");
+        // Committed before waiting callers are released, so they never see a rolled-back pair
+        rotationTransaction = new TransactionTemplate(transactionManager);
+        rotated = Counter.builder("auth.refresh.requests").tag("result", "rotated").register(meterRegistry);
+        coalesced = Counter.builder("auth.refresh.requests").tag("result", "coalesced").register(meterRegistry);
+        graceHits = Counter.builder("auth.refresh.requests").tag("result", "grace").register(meterRegistry);
+    }
+
     /**
      * Register a new user
      * @param request registration request
      * @return authentication response with tokens
      */
+    @Transactional
     public AuthResponse register(RegisterRequest request) {
+        shardRouter.routeEmail(request.getEmail());
         // Register user
         User user = userService.registerUser(request);
         
-        // Create user details for JWT
-        UserDetails userDetails = createUserDetails(user);
-        
         // Generate tokens
-        String accessToken = jwtService.generateAccessToken(userDetails);
+        String accessToken = jwtService.generateAccessToken(user);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
         
         return new AuthResponse(
@@ -58,20 +124,28 @@ public class AuthenticationService {
      * @param request login request
      * @return authentication response with tokens
      */
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         try {
-            // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-            
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userService.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            shardRouter.routeEmail(request.getEmail());
+            User user = registeredEmailFilter.mightContain(request.getEmail())
+                ? userService.findByEmail(request.getEmail()).orElse(null)
+                : null;
+            if (user == null) {
+                passwordEncoder.matches(request.getPassword(), dummyPasswordHash);
+                throw InvalidCredentialsException.INSTANCE;
+            }
+            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+                throw InvalidCredentialsException.INSTANCE;
+            }
             
             // Generate tokens
-            String accessToken = jwtService.generateAccessToken(userDetails);
+            String accessToken = jwtService.generateAccessToken(user);
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+            userActivityTracker.recordLogin(user.getId());
+            if (log.isInfoEnabled() && LogSampling.oneIn(loginSuccessSampleRate)) {
+                log.info("Login succeeded userId={} (sampled 1/{})", user.getId(), loginSuccessSampleRate);
+            }
             
             return new AuthResponse(
                 accessToken,
@@ -79,32 +153,80 @@ public class AuthenticationService {
                 jwtService.getAccessTokenExpiration(),
                 user
             );
-        } catch (Exception e) {
-            // Log the error for debugging
-            System.err.println("Login error: " + e.getMessage());
-            e.printStackTrace();
+        } catch (AuthException e) {
+            // Expected; recorded by the audit trail
+            throw e;
+        } catch (RuntimeException e) {
+            errorLog.error("Login error", e);
             throw e;
         }
     }
 
     /**
-     * Refresh access token using refresh token
+     * Refresh access token using refresh token. Concurrent calls with the same
+     * token on this node share one rotation, and calls arriving within
+     * refresh.grace-window after it get the same new token pair.
      * @param refreshToken refresh token value
      * @return new authentication response
      */
     public AuthResponse refreshToken(String refreshToken) {
+        RotatedTokens recent = recentRotations.get(refreshToken);
+        if (recent != null && System.nanoTime() - recent.rotatedAt() < graceWindow.toNanos()) {
+            graceHits.increment();
+            return recent.response();
+        }
+
+        CompletableFuture<AuthResponse> rotation = new CompletableFuture<>();
+        CompletableFuture<AuthResponse> inFlight = rotationsInFlight.putIfAbsent(refreshToken, rotation);
+        if (inFlight != null) {
+            coalesced.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            AuthResponse response = rotationTransaction.execute(status -> rotate(refreshToken));
+            rotated.increment();
+            if (recentRotations.size() < graceMaxEntries) {
+                recentRotations.put(refreshToken, new RotatedTokens(response, System.nanoTime()));
+            }
+            rotation.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            rotation.completeExceptionally(e);
+            throw e;
+        } finally {
+            // After the grace entry is in place, so a late duplicate finds one or the other
+            rotationsInFlight.remove(refreshToken, rotation);
+        }
+    }
+
+    /**
+     * Forget rotations older than the grace window
+     */
+    @Scheduled(fixedDelayString = "${refresh.grace-window:10s}")
+    public void evictRecentRotations() {
+        long cutoff = System.nanoTime() - graceWindow.toNanos();
+        recentRotations.values().removeIf(entry -> entry.rotatedAt() - cutoff < 0);
+    }
+
+    private AuthResponse rotate(String refreshToken) {
+        shardRouter.routeToken(refreshToken);
         // Find and validate refresh token
         RefreshToken token = refreshTokenService.findByToken(refreshToken)
-            .orElseThrow(() -> new RuntimeException("Refresh token not found"));
+            .orElseThrow(() -> InvalidRefreshTokenException.NOT_FOUND);
         
         token = refreshTokenService.verifyExpiration(token);
+        // Conditional revoke: a rotation of the same token on another node makes this one fail
+        refreshTokenService.claimForRotation(refreshToken);
         
-        // Get user details
         User user = token.getUser();
-        UserDetails userDetails = createUserDetails(user);
         
         // Generate new tokens
-        String newAccessToken = jwtService.generateAccessToken(userDetails);
+        String newAccessToken = jwtService.generateAccessToken(user);
         RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user);
         
         return new AuthResponse(
@@ -118,25 +240,12 @@ public class AuthenticationService {
     /**
      * Logout user and revoke tokens
      * @param refreshToken refresh token to revoke
+     * @return id of the user that logged out, or null if the token was unknown
      */
-    public void logout(String refreshToken) {
-        refreshTokenService.revokeToken(refreshToken);
-    }
-
-    /**
-     * Create UserDetails from User entity
-     * @param user user entity
-     * @return UserDetails object
-     */
-    private UserDetails createUserDetails(User user) {
-        return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getEmail())
-            .password(user.getPassword())
-            .authorities("USER")
-            .accountExpired(false)
-            .accountLocked(false)
-            .credentialsExpired(false)
-            .disabled(!user.getIsActive())
-            .build();
+    @Transactional
+    public Long logout(String refreshToken) {
+        shardRouter.routeToken(refreshToken);
+        recentRotations.remove(refreshToken);
+        return refreshTokenService.revokeToken(refreshToken);
     }
 }
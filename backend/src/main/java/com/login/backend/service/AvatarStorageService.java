@@ -0,0 +1,223 @@
+package com.login.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed avatar store on the local filesystem.
+ * <p>
+ * Layout: {@code <root>/<first two hash chars>/<sha-256>/original.<ext>} plus one
+ * {@code <size>.jpg} square thumbnail per configured size, generated once on upload.
+ * The original is written last, so its presence marks a complete entry.
+ */
+@Service
+public class AvatarStorageService {
+
+    public static final String PUBLIC_PATH = "/api/public/avatars";
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        "png", "image/png",
+        "jpg", "image/jpeg",
+        "gif", "image/gif"
+    );
+
+    @Value("${avatar.storage.dir:data/avatars}")
+    private String storageDir;
+
+    @Value("${avatar.thumbnail.sizes:64,128,256}")
+    private List<Integer> thumbnailSizes;
+
+    @Value("${avatar.max-pixels:25000000}")
+    private long maxPixels;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(storageDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve("tmp"));
+    }
+
+    /**
+     * Stream an uploaded image into the store and generate its thumbnails
+     * @param content image bytes
+     * @return SHA-256 content hash identifying the avatar
+     * @throws IllegalArgumentException if the content is not a supported image
+     * @throws IOException if the store cannot be written
+     */
+    public String store(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(root.resolve("tmp"), "upload", ".bin");
+        try {
+            MessageDigest digest = newDigest();
+            try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path dir = directoryFor(hash);
+
+            if (findOriginal(dir) != null) {
+                // Same image already stored, nothing to generate
+                return hash;
+            }
+
+            String extension = detectExtension(temp);
+            BufferedImage image = ImageIO.read(temp.toFile());
+            if (image == null) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+
+            Files.createDirectories(dir);
+            for (Integer size : thumbnailSizes) {
+                ImageIO.write(thumbnail(image, size), "jpg", dir.resolve(size + ".jpg").toFile());
+            }
+            Files.move(temp, dir.resolve("original." + extension), StandardCopyOption.ATOMIC_MOVE);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Resolve a stored avatar file
+     * @param hash content hash
+     * @param size thumbnail size, or null for the original
+     * @return path to the file, or null if it does not exist
+     */
+    public Path resolve(String hash, Integer size) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            return null;
+        }
+        Path dir = directoryFor(hash);
+        if (size == null) {
+            return findOriginal(dir);
+        }
+        if (!thumbnailSizes.contains(size)) {
+            return null;
+        }
+        Path thumbnail = dir.resolve(size + ".jpg");
+        return Files.isRegularFile(thumbnail) ? thumbnail : null;
+    }
+
+    /**
+     * Content type of a stored avatar file
+     * @param file path returned by {@link #resolve(String, Integer)}
+     * @return MIME type
+     */
+    public String contentType(Path file) {
+        String name = file.getFileName().toString();
+        return CONTENT_TYPES.getOrDefault(name.substring(name.lastIndexOf('.') + 1), "application/octet-stream");
+    }
+
+    /**
+     * Public URL under which an avatar is served
+     * @param hash content hash
+     * @return relative URL
+     */
+    public static String urlFor(String hash) {
+        return PUBLIC_PATH + "/" + hash;
+    }
+
+    private Path directoryFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path findOriginal(Path dir) {
+        for (String extension : CONTENT_TYPES.keySet()) {
+            Path original = dir.resolve("original." + extension);
+            if (Files.isRegularFile(original)) {
+                return original;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Identify the image format from its header and reject oversized images before decoding
+     * @param file uploaded file
+     * @return file extension for the stored original
+     */
+    private String detectExtension(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image dimensions are too large");
+                }
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                if (format.equals("jpeg")) {
+                    format = "jpg";
+                }
+                if (!CONTENT_TYPES.containsKey(format)) {
+                    throw new IllegalArgumentException("Unsupported image format: " + format);
+                }
+                return format;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Center-crop to a square and scale down to the requested size
+     * @param source decoded image
+     * @param size edge length in pixels
+     * @return RGB thumbnail (JPEG has no alpha channel)
+     */
+    private static BufferedImage thumbnail(BufferedImage source, int size) {
+        int edge = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - edge) / 2;
+        int y = (source.getHeight() - edge) / 2;
+
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size, size);
+            graphics.drawImage(source, 0, 0, size, size, x, y, x + edge, y + edge, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
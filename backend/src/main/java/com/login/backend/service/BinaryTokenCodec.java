@@ -0,0 +1,139 @@
+package com.login.backend.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Binary access token, a COSE_Mac0-style fixed layout without the CBOR framing:
+ * <pre>
+ *   version (1 byte) | user id (unsigned LEB128) | exp (uint32 epoch seconds) | HMAC-SHA256 tag (first 16 bytes)
+ * </pre>
+ * base64url-encoded without padding, so a typical token is about 32 characters.
+ * The MAC key is derived from jwt.secret with a fixed label, so a binary tag
+ * can never be replayed as a JWT signature or the other way round. Tokens
+ * contain no '.', which tells them apart from JWTs.
+ */
+final class BinaryTokenCodec {
+
+    private static final byte VERSION = 1;
+    private static final int TAG_LENGTH = 16;
+    private static final int MAX_LENGTH = 1 + 10 + 4 + TAG_LENGTH;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    BinaryTokenCodec(byte[] secret) {
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret, "HmacSHA256"),
+            "login-backend/binary-access-token/v1".getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @param userId positive user id
+     * @param expiresAt expiry, truncated to seconds
+     * @return encoded token
+     */
+    String encode(long userId, Instant expiresAt) {
+        byte[] buffer = new byte[MAX_LENGTH];
+        int length = 0;
+        buffer[length++] = VERSION;
+        long remaining = userId;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[length++] = (byte) remaining;
+        long exp = expiresAt.getEpochSecond();
+        buffer[length++] = (byte) (exp >>> 24);
+        buffer[length++] = (byte) (exp >>> 16);
+        buffer[length++] = (byte) (exp >>> 8);
+        buffer[length++] = (byte) exp;
+
+        Mac mac = macs.get();
+        mac.update(buffer, 0, length);
+        byte[] tag = mac.doFinal();
+        System.arraycopy(tag, 0, buffer, length, TAG_LENGTH);
+        length += TAG_LENGTH;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * @param token encoded token
+     * @return verified token (subject is the user id as a string)
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    VerifiedToken decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid binary token encoding");
+        }
+        if (bytes.length < 1 + 1 + 4 + TAG_LENGTH || bytes.length > MAX_LENGTH || bytes[0] != VERSION) {
+            throw new MalformedJwtException("Invalid binary token");
+        }
+        int payloadLength = bytes.length - TAG_LENGTH;
+        Mac mac = macs.get();
+        mac.update(bytes, 0, payloadLength);
+        byte[] expected = mac.doFinal();
+        if (!MessageDigest.isEqual(
+                Arrays.copyOf(expected, TAG_LENGTH),
+                Arrays.copyOfRange(bytes, payloadLength, bytes.length))) {
+            throw new SignatureException("Invalid binary token signature");
+        }
+
+        int position = 1;
+        long userId = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position >= payloadLength - 4 || shift > 63) {
+                throw new MalformedJwtException("Invalid binary token");
+            }
+            b = bytes[position++];
+            userId |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        if (position != payloadLength - 4) {
+            throw new MalformedJwtException("Invalid binary token");
+        }
+        long exp = ((bytes[position] & 0xFFL) << 24) | ((bytes[position + 1] & 0xFFL) << 16)
+            | ((bytes[position + 2] & 0xFFL) << 8) | (bytes[position + 3] & 0xFFL);
+        Instant expiresAt = Instant.ofEpochSecond(exp);
+        if (!expiresAt.isAfter(Instant.now())) {
+            throw new ExpiredJwtException(null, null, "Binary token expired");
+        }
+        return new VerifiedToken(Long.toString(userId), userId, null, expiresAt);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.login.backend.service;
 
-import com.login.backend.entity.User;
+import com.login.backend.dto.UserCredentials;
 import com.login.backend.repository.UserRepository;
+import com.login.backend.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -17,19 +22,54 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+        List.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority("ADMIN"));
+
+    @Value("${app.admin.emails:}")
+    private Set<String> adminEmails;
+
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmailAndIsActive(email, true)
+        // No registered-email filter check: the caller holds a signed token, and
+        // the filter on this node may not know a user registered through another
+        shardRouter.routeEmail(email);
+        readYourWritesTracker.routeReadsFor(email);
+        UserCredentials user = userRepository.findCredentialsByEmail(EmailNormalizer.normalize(email))
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getEmail())
-            .password(user.getPassword())
-            .authorities(Collections.singletonList(new SimpleGrantedAuthority("USER")))
-            .accountExpired(false)
-            .accountLocked(false)
-            .credentialsExpired(false)
-            .disabled(!user.getIsActive())
-            .build();
+        return toUserDetails(user);
+    }
+
+    /**
+     * Load an active user by id, for access tokens whose subject is the user id
+     * @param id user id
+     * @return user details
+     * @throws UsernameNotFoundException if no active user has this id
+     */
+    @Transactional(readOnly = true)
+    public AuthenticatedUser loadUserById(Long id) throws UsernameNotFoundException {
+        shardRouter.routeUserId(id);
+        UserCredentials user = userRepository.findCredentialsById(id)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        return toUserDetails(user);
+    }
+
+    private AuthenticatedUser toUserDetails(UserCredentials user) {
+        return new AuthenticatedUser(
+            user.id(),
+            user.email(),
+            user.password(),
+            user.isActive(),
+            adminEmails.contains(EmailNormalizer.normalize(user.email())) ? ADMIN_AUTHORITIES : USER_AUTHORITIES
+        );
     }
 }
@@ -0,0 +1,179 @@
+package com.login.backend.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the primary connection pool (every shard's pool when sharded) and
+ * decides whether the database is under pressure: connection acquisition is
+ * slower than the latency budget, or too many threads are queued for a
+ * connection. With several pools the worst one decides, so one saturated
+ * shard is enough. Low-priority requests are shed while the pool is pressured
+ * (see DatabaseAdmissionFilter).
+ */
+@Service("dbPoolHealthIndicator")
+public class DatabasePressureMonitor implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabasePressureMonitor.class);
+
+    @Autowired
+    private Map<String, HikariDataSource> pools;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${admission.acquire-budget:50ms}")
+    private Duration acquireBudget;
+
+    @Value("${admission.max-pending:5}")
+    private int maxPending;
+
+    /** A sampled pool and its acquisition timer totals at the previous sample */
+    private static final class SampledPool {
+        final HikariDataSource pool;
+        long lastAcquireCount;
+        double lastAcquireTotalMillis;
+
+        SampledPool(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    private List<SampledPool> sampled;
+
+    private volatile boolean pressured;
+    private volatile double acquireWaitMillis;
+    private volatile int activeConnections;
+    private volatile int idleConnections;
+    private volatile int pendingThreads;
+
+    @PostConstruct
+    void init() {
+        // With read replicas configured the write pool is "primaryDataSource"; with shards, every
+        // shardNDataSource is sampled; otherwise there is one pool
+        List<HikariDataSource> selected = new ArrayList<>();
+        if (pools.containsKey("primaryDataSource")) {
+            selected.add(pools.get("primaryDataSource"));
+        } else {
+            pools.forEach((name, pool) -> {
+                if (name.matches("shard\\d+DataSource")) {
+                    selected.add(pool);
+                }
+            });
+            if (selected.isEmpty()) {
+                selected.add(pools.values().iterator().next());
+            }
+        }
+        sampled = selected.stream().map(SampledPool::new).toList();
+
+        Gauge.builder("db.pool.pressure", this, m -> m.pressured ? 1 : 0)
+            .description("1 while low-priority requests are shed because the connection pool is saturated")
+            .register(meterRegistry);
+        Gauge.builder("db.pool.acquire_wait", this, m -> m.acquireWaitMillis)
+            .description("Mean connection acquisition time over the last sample, in milliseconds")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    public boolean isPressured() {
+        return pressured;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getPendingThreads() {
+        return pendingThreads;
+    }
+
+    /**
+     * Sample pool state and update the pressure flag. Entering pressure needs
+     * the budget to be exceeded; leaving it needs both signals well below it.
+     * Active and idle connections are totals over the sampled pools; pending
+     * threads and acquisition time are those of the worst pool.
+     */
+    @Scheduled(fixedDelayString = "${admission.sample-interval:250ms}")
+    public void sample() {
+        int active = 0;
+        int idle = 0;
+        int pending = 0;
+        double waitMillis = 0;
+        boolean any = false;
+        for (SampledPool sample : sampled) {
+            HikariPoolMXBean mxBean = sample.pool.getHikariPoolMXBean();
+            if (mxBean == null) {
+                continue;
+            }
+            any = true;
+            active += mxBean.getActiveConnections();
+            idle += mxBean.getIdleConnections();
+            pending = Math.max(pending, mxBean.getThreadsAwaitingConnection());
+
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", sample.pool.getPoolName()).timer();
+            if (acquire != null) {
+                long count = acquire.count();
+                double total = acquire.totalTime(TimeUnit.MILLISECONDS);
+                if (count > sample.lastAcquireCount) {
+                    waitMillis = Math.max(waitMillis,
+                        (total - sample.lastAcquireTotalMillis) / (count - sample.lastAcquireCount));
+                }
+                sample.lastAcquireCount = count;
+                sample.lastAcquireTotalMillis = total;
+            }
+        }
+        if (!any) {
+            return;
+        }
+        activeConnections = active;
+        idleConnections = idle;
+        pendingThreads = pending;
+        acquireWaitMillis = waitMillis;
+
+        double budget = acquireBudget.toMillis();
+        boolean wasPressured = pressured;
+        if (!wasPressured) {
+            pressured = acquireWaitMillis > budget || pendingThreads >= maxPending;
+        } else {
+            pressured = acquireWaitMillis > budget / 2 || pendingThreads > 0;
+        }
+        if (wasPressured != pressured) {
+            log.warn("Database pool pressure {}: wait {} ms, active {}, idle {}, pending {}",
+                pressured ? "HIGH, shedding low-priority requests" : "back to normal",
+                String.format("%.1f", acquireWaitMillis), activeConnections, idleConnections, pendingThreads);
+        }
+    }
+
+    @Override
+    public Health health() {
+        return Health.up()
+            .withDetail("pressure", pressured ? "HIGH" : "NORMAL")
+            .withDetail("acquireWaitMillis", acquireWaitMillis)
+            .withDetail("active", activeConnections)
+            .withDetail("idle", idleConnections)
+            .withDetail("pending", pendingThreads)
+            .build();
+    }
+}
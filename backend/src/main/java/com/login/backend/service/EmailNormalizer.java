@@ -0,0 +1,20 @@
+package com.login.backend.service;
+
+import java.util.Locale;
+
+/**
+ * Canonical form of an email address used for lookups, uniqueness and in-memory keys.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {}
+
+    /**
+     * Normalize an email address (trimmed, lower-cased)
+     * @param email raw email, may be null
+     * @return normalized email, or null if the input is null
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,226 @@
+package com.login.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response store behind the Idempotency-Key header. Completed responses are
+ * kept in a bounded in-memory map for idempotency.ttl and, with
+ * idempotency.persistent=true, mirrored to the idempotency_keys table so a
+ * retry that reaches another node is also replayed. Requests that arrive
+ * while the first one is still running wait for its result; that part is
+ * per node.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String SELECT_SQL =
+        "SELECT fingerprint, status, content_type, body, expires_at FROM idempotency_keys " +
+        "WHERE idempotency_key = ? AND expires_at > now()";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO idempotency_keys (idempotency_key, fingerprint, status, content_type, body, expires_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (idempotency_key) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${idempotency.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${idempotency.persistent:false}")
+    private boolean persistent;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    private SecretKeySpec fingerprintKey;
+
+    private final ConcurrentHashMap<String, IdempotentResponse> completed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter replayed;
+    private Counter joined;
+    private Counter stored;
+
+    @PostConstruct
+    void init() {
+        // Keyed so stored fingerprints of register bodies cannot be brute-forced for the password
+        fingerprintKey = new SecretKeySpec(
+            hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"),
+                "login-backend/idempotency-fingerprint/v1".getBytes(StandardCharsets.UTF_8)),
+            "HmacSHA256");
+        replayed = Counter.builder("auth.idempotency.requests").tag("result", "replayed").register(meterRegistry);
+        joined = Counter.builder("auth.idempotency.requests").tag("result", "joined").register(meterRegistry);
+        stored = Counter.builder("auth.idempotency.requests").tag("result", "stored").register(meterRegistry);
+        Gauge.builder("auth.idempotency.entries", completed, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Keyed fingerprint of a request, compared before a stored response is replayed
+     * @param method HTTP method
+     * @param path request path
+     * @param body request body
+     * @return HMAC-SHA256 of method, path and body
+     */
+    public byte[] fingerprint(String method, String path, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(fingerprintKey);
+            mac.update(method.getBytes(StandardCharsets.US_ASCII));
+            mac.update((byte) 0);
+            mac.update(path.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Claim a key for execution, or find the response another request produced for it
+     * @param key scoped idempotency key
+     * @return null if the caller now owns the key and must call {@link #complete};
+     *         otherwise a future of the first response, already done for a replay.
+     *         The future yields null if the first request produced nothing replayable.
+     */
+    public CompletableFuture<IdempotentResponse> claim(String key) {
+        IdempotentResponse response = find(key);
+        if (response != null) {
+            replayed.increment();
+            return CompletableFuture.completedFuture(response);
+        }
+        CompletableFuture<IdempotentResponse> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            joined.increment();
+            return running;
+        }
+        // The previous owner may have stored its response between find() and putIfAbsent()
+        response = completed.get(key);
+        if (response != null && response.isLiveAt(System.currentTimeMillis())) {
+            inFlight.remove(key, mine);
+            mine.complete(response);
+            replayed.increment();
+            return mine;
+        }
+        return null;
+    }
+
+    /**
+     * Store the owner's response (if replayable) and release waiting duplicates
+     * @param key scoped idempotency key
+     * @param response response to replay, or null to let retries run again
+     */
+    public void complete(String key, IdempotentResponse response) {
+        try {
+            if (response != null) {
+                if (completed.size() < maxEntries) {
+                    completed.put(key, response);
+                }
+                if (persistent) {
+                    mirror(key, response);
+                }
+                stored.increment();
+            }
+        } finally {
+            CompletableFuture<IdempotentResponse> mine = inFlight.remove(key);
+            if (mine != null) {
+                mine.complete(response);
+            }
+        }
+    }
+
+    /**
+     * @return time a stored response stays replayable
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Drop expired entries from memory and, when persistent, from the table
+     */
+    @Scheduled(fixedDelayString = "${idempotency.eviction-interval:30s}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        completed.values().removeIf(response -> !response.isLiveAt(now));
+        if (persistent) {
+            try {
+                jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= now()");
+            } catch (RuntimeException e) {
+                log.warn("Could not delete expired idempotency keys: {}", e.getMessage());
+            }
+        }
+    }
+
+    private IdempotentResponse find(String key) {
+        long now = System.currentTimeMillis();
+        IdempotentResponse response = completed.get(key);
+        if (response != null) {
+            return response.isLiveAt(now) ? response : null;
+        }
+        if (!persistent) {
+            return null;
+        }
+        try {
+            List<IdempotentResponse> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new IdempotentResponse(
+                rs.getBytes("fingerprint"),
+                rs.getInt("status"),
+                rs.getString("content_type"),
+                rs.getBytes("body"),
+                rs.getTimestamp("expires_at").getTime()), key);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (RuntimeException e) {
+            // The shared store is an optimization; fall back to running the request
+            log.warn("Idempotency key lookup failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private void mirror(String key, IdempotentResponse response) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, key, response.fingerprint(), response.status(),
+                response.contentType(), response.body(), new Timestamp(response.expiresAtMillis()));
+        } catch (RuntimeException e) {
+            log.warn("Could not store idempotency key: {}", e.getMessage());
+        }
+    }
+}
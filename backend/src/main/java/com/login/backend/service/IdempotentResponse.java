@@ -0,0 +1,21 @@
+package com.login.backend.service;
+
+/**
+ * First response to an idempotent request, replayed byte-for-byte to retries
+ * that carry the same Idempotency-Key and the same request fingerprint.
+ * @param fingerprint SHA-256 of method, path and request body
+ * @param status HTTP status
+ * @param contentType response content type, may be null
+ * @param body response body
+ * @param expiresAtMillis epoch millis after which the entry is discarded
+ */
+public record IdempotentResponse(byte[] fingerprint, int status, String contentType, byte[] body, long expiresAtMillis) {
+
+    /**
+     * @param now current epoch millis
+     * @return true while the entry may still be replayed
+     */
+    public boolean isLiveAt(long now) {
+        return expiresAtMillis > now;
+    }
+}
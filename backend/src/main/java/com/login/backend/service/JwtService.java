@@ -1,20 +1,37 @@
 package com.login.backend.service;
 
+import com.login.backend.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    /**
+     * Wire format of newly issued access tokens. All formats are accepted by
+     * {@link #verify(String)} so the setting can be switched without logging anyone out.
+     */
+    public enum AccessTokenFormat {
+        /** HS256 JWT with the email as sub, plus iat and exp */
+        STANDARD,
+        /** HS256 JWT with the numeric user id as sub and exp only */
+        COMPACT,
+        /** Binary MAC'd token, see {@link BinaryTokenCodec} */
+        BINARY
+    }
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -24,13 +41,52 @@ public class JwtService {
     @Value("${jwt.refresh-token.expiration}")
     private Long refreshTokenExpiration;
 
+    @Value("${jwt.access-token.format:standard}")
+    private String accessTokenFormat;
+
+    // Derived once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private BinaryTokenCodec binaryCodec;
+    private AccessTokenFormat format;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        binaryCodec = new BinaryTokenCodec(secret.getBytes());
+        format = AccessTokenFormat.valueOf(accessTokenFormat.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Generate access token for user in the configured format
+     * @param user user entity
+     * @return access token
+     */
+    public String generateAccessToken(User user) {
+        switch (format) {
+            case COMPACT:
+                return Jwts.builder()
+                        .setSubject(user.getId().toString())
+                        .setExpiration(new Date(System.currentTimeMillis() + accessTokenExpiration))
+                        .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                        .compact();
+            case BINARY:
+                return binaryCodec.encode(user.getId(), Instant.now().plusMillis(accessTokenExpiration));
+            default:
+                return generateToken(new HashMap<>(), user.getEmail(), accessTokenExpiration);
+        }
+    }
+
     /**
      * Generate access token for user
      * @param userDetails user details
      * @return JWT access token
      */
     public String generateAccessToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails, accessTokenExpiration);
+        return generateToken(new HashMap<>(), userDetails.getUsername(), accessTokenExpiration);
     }
 
     /**
@@ -39,20 +95,20 @@ public class JwtService {
      * @return JWT refresh token
      */
     public String generateRefreshToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails, refreshTokenExpiration);
+        return generateToken(new HashMap<>(), userDetails.getUsername(), refreshTokenExpiration);
     }
 
     /**
      * Generate JWT token with claims
      * @param extraClaims additional claims
-     * @param userDetails user details
+     * @param subject token subject
      * @param expiration expiration time in milliseconds
      * @return JWT token
      */
-    private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, Long expiration) {
+    private String generateToken(Map<String, Object> extraClaims, String subject, Long expiration) {
         return Jwts.builder()
                 .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
+                .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -94,11 +150,50 @@ public class JwtService {
      * @return all claims
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verify signature and expiry in a single parse. Accepts every
+     * {@link AccessTokenFormat}; binary tokens are the ones without a '.'.
+     * @param token access token
+     * @return verified claims
+     * @throws JwtException if the token is malformed, forged or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public VerifiedToken verify(String token) {
+        if (token.indexOf('.') < 0) {
+            return binaryCodec.decode(token);
+        }
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        Date issuedAt = claims.getIssuedAt();
+        String subject = claims.getSubject();
+        return new VerifiedToken(
+                subject,
+                parseUserId(subject),
+                issuedAt == null ? null : issuedAt.toInstant(),
+                claims.getExpiration().toInstant());
+    }
+
+    /**
+     * Compact tokens carry the numeric user id as subject; standard ones an email
+     * @param subject token subject
+     * @return user id, or null if the subject is not numeric
+     */
+    private static Long parseUserId(String subject) {
+        if (subject == null || subject.isEmpty() || subject.length() > 18) {
+            return null;
+        }
+        for (int i = 0; i < subject.length(); i++) {
+            char c = subject.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        return Long.parseLong(subject);
     }
 
     /**
@@ -106,8 +201,7 @@ public class JwtService {
      * @return secret key
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
@@ -151,6 +245,14 @@ public class JwtService {
         return accessTokenExpiration;
     }
 
+    /**
+     * Get the format new access tokens are issued in
+     * @return access token format
+     */
+    public AccessTokenFormat getAccessTokenFormat() {
+        return format;
+    }
+
     /**
      * Get refresh token expiration time
      * @return expiration time in milliseconds
@@ -0,0 +1,184 @@
+package com.login.backend.service;
+
+import com.login.backend.security.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits login and registration attempts per client IP and per account
+ * email, before any password hashing or database work happens, and failed
+ * introspection client authentication per client IP.
+ */
+@Service
+public class LoginRateLimitService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.client.permits:30}")
+    private long clientPermits;
+
+    @Value("${rate-limit.client.period:60s}")
+    private Duration clientPeriod;
+
+    @Value("${rate-limit.client.burst:10}")
+    private long clientBurst;
+
+    @Value("${rate-limit.account.permits:5}")
+    private long accountPermits;
+
+    @Value("${rate-limit.account.period:60s}")
+    private Duration accountPeriod;
+
+    @Value("${rate-limit.account.burst:5}")
+    private long accountBurst;
+
+    @Value("${rate-limit.introspection-client.permits:10}")
+    private long introspectionPermits;
+
+    @Value("${rate-limit.introspection-client.period:60s}")
+    private Duration introspectionPeriod;
+
+    @Value("${rate-limit.introspection-client.burst:5}")
+    private long introspectionBurst;
+
+    @Value("${rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    private TokenBucketRateLimiter clientLimiter;
+    private TokenBucketRateLimiter accountLimiter;
+    private TokenBucketRateLimiter introspectionLimiter;
+
+    private Counter clientAdmitted;
+    private Counter clientLimited;
+    private Counter accountAdmitted;
+    private Counter accountLimited;
+    private Counter introspectionFailed;
+    private Counter introspectionLimited;
+
+    @PostConstruct
+    void init() {
+        clientLimiter = new TokenBucketRateLimiter(clientPermits, clientPeriod.toNanos(), clientBurst, maxKeys);
+        accountLimiter = new TokenBucketRateLimiter(accountPermits, accountPeriod.toNanos(), accountBurst, maxKeys);
+        introspectionLimiter = new TokenBucketRateLimiter(introspectionPermits, introspectionPeriod.toNanos(), introspectionBurst, maxKeys);
+
+        clientAdmitted = counter("client", "admitted");
+        clientLimited = counter("client", "limited");
+        accountAdmitted = counter("account", "admitted");
+        accountLimited = counter("account", "limited");
+        introspectionFailed = counter("introspection_client", "failed");
+        introspectionLimited = counter("introspection_client", "limited");
+        gauges("client", clientLimiter);
+        gauges("account", accountLimiter);
+        gauges("introspection_client", introspectionLimiter);
+    }
+
+    /**
+     * Take one attempt from the client IP bucket
+     * @param clientIp remote address
+     * @return 0 if admitted, otherwise seconds the client should wait
+     */
+    public long checkClient(String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        return record(clientLimiter.tryAcquire(clientIp, System.nanoTime()), clientAdmitted, clientLimited);
+    }
+
+    /**
+     * Take one attempt from the account bucket
+     * @param email account email, normalized before use as a key
+     * @return 0 if admitted, otherwise seconds the client should wait
+     */
+    public long checkAccount(String email) {
+        if (!enabled || email == null) {
+            return 0;
+        }
+        return record(accountLimiter.tryAcquire(EmailNormalizer.normalize(email), System.nanoTime()), accountAdmitted, accountLimited);
+    }
+
+    /**
+     * Check whether a client IP has used up its failed introspection
+     * authentications. Takes nothing: only failures count.
+     * @param clientIp remote address
+     * @return 0 if the client may authenticate, otherwise seconds it should wait
+     */
+    public long checkIntrospectionClient(String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        long waitNanos = introspectionLimiter.waitNanos(clientIp, System.nanoTime());
+        if (waitNanos <= 0) {
+            return 0;
+        }
+        introspectionLimited.increment();
+        return toSeconds(waitNanos);
+    }
+
+    /**
+     * Count a failed introspection client authentication against the client IP
+     * @param clientIp remote address
+     */
+    public void recordIntrospectionFailure(String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        introspectionFailed.increment();
+        introspectionLimiter.tryAcquire(clientIp, System.nanoTime());
+    }
+
+    /**
+     * Drop buckets that have been idle long enough to be full again
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:30s}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        clientLimiter.evictIdle(now);
+        accountLimiter.evictIdle(now);
+        introspectionLimiter.evictIdle(now);
+    }
+
+    private static long record(long waitNanos, Counter admitted, Counter limited) {
+        if (waitNanos <= 0) {
+            admitted.increment();
+            return 0;
+        }
+        limited.increment();
+        return toSeconds(waitNanos);
+    }
+
+    private static long toSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private Counter counter(String limiter, String outcome) {
+        return Counter.builder("auth.rate_limit.requests")
+            .description("Attempts seen by the rate limiter")
+            .tag("limiter", limiter)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private void gauges(String limiter, TokenBucketRateLimiter rateLimiter) {
+        Gauge.builder("auth.rate_limit.keys", rateLimiter, TokenBucketRateLimiter::trackedKeys)
+            .description("Keys currently tracked by the rate limiter")
+            .tag("limiter", limiter)
+            .register(meterRegistry);
+        Gauge.builder("auth.rate_limit.overflow", rateLimiter, TokenBucketRateLimiter::overflowCount)
+            .description("Attempts limited through the shared overflow bucket because the key table was full")
+            .tag("limiter", limiter)
+            .register(meterRegistry);
+    }
+}
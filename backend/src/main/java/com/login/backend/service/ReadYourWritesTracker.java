@@ -0,0 +1,74 @@
+package com.login.backend.service;
+
+import com.login.backend.config.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their reads within a short window
+ * go to the primary instead of a replica that may not have the write yet.
+ * State is per node; the window should cover the replica's normal lag.
+ * Without a replica configured the routing hint has no effect.
+ */
+@Service
+public class ReadYourWritesTracker {
+
+    @Value("${app.datasource.replica.read-your-writes-window:5s}")
+    private Duration window;
+
+    @Value("${app.datasource.replica.read-your-writes-max-users:100000}")
+    private int maxUsers;
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * Record a write made on behalf of a user
+     * @param email user's email
+     */
+    public void recordWrite(String email) {
+        if (email == null) {
+            return;
+        }
+        if (lastWrites.size() >= maxUsers) {
+            evictExpired();
+        }
+        lastWrites.put(EmailNormalizer.normalize(email), System.nanoTime());
+    }
+
+    /**
+     * Route the current read-only transaction to the primary if the user wrote
+     * within the window. The hint is cleared when the transaction completes.
+     * @param email user's email
+     */
+    public void routeReadsFor(String email) {
+        if (email == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long writtenAt = lastWrites.get(EmailNormalizer.normalize(email));
+        if (writtenAt == null || System.nanoTime() - writtenAt > window.toNanos()) {
+            return;
+        }
+        ReplicaRoutingDataSource.forcePrimary();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ReplicaRoutingDataSource.clearForcePrimary();
+            }
+        });
+    }
+
+    /**
+     * Forget writes older than the window
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-window:5s}")
+    public void evictExpired() {
+        long cutoff = System.nanoTime() - window.toNanos();
+        lastWrites.values().removeIf(writtenAt -> writtenAt - cutoff < 0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.login.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Readiness state for /readyz. The database check runs at most once per
+ * probes.readiness.cache-ttl, on its own thread, however often the endpoint
+ * is polled; probes always answer immediately from the last result. A check
+ * still running after probes.readiness.max-age is stuck (e.g. waiting for a
+ * pool connection), so it is reported as DOWN until it finishes. An old result
+ * with no check running is only a sign of infrequent probes: it is served
+ * while a new check starts. Pool headroom comes from DatabasePressureMonitor's
+ * samples, so it costs nothing.
+ */
+@Service
+public class ReadinessProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadinessProbe.class);
+
+    /** Status and pre-encoded body of the last check */
+    public record Result(boolean ready, byte[] body, long checkedAt) {}
+
+    private static final Result STARTING = new Result(false,
+        "{\"status\":\"DOWN\",\"database\":\"UNKNOWN\"}".getBytes(StandardCharsets.UTF_8), 0);
+
+    private static final Result OVERDUE = new Result(false,
+        "{\"status\":\"DOWN\",\"database\":\"UNKNOWN\",\"check\":\"OVERDUE\"}".getBytes(StandardCharsets.UTF_8), 0);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabasePressureMonitor pressureMonitor;
+
+    @Value("${probes.readiness.cache-ttl:2s}")
+    private Duration cacheTtl;
+
+    @Value("${probes.readiness.max-age:10s}")
+    private Duration maxAge;
+
+    @Value("${probes.readiness.query-timeout:1s}")
+    private Duration queryTimeout;
+
+    @Value("${probes.readiness.max-pending-threads:20}")
+    private int maxPendingThreads;
+
+    /** checkStartedAt value while no check is running */
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private volatile Result last = STARTING;
+    private final AtomicLong checkStartedAt = new AtomicLong(IDLE);
+    private ExecutorService checker;
+
+    @PostConstruct
+    void init() {
+        checker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "readiness-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checker.shutdownNow();
+    }
+
+    /**
+     * Last known readiness; starts a background re-check when it is stale
+     * @return cached result, or DOWN while a check has been running for longer than max-age
+     */
+    public Result current() {
+        Result result = last;
+        long now = System.nanoTime();
+        long startedAt = checkStartedAt.get();
+        if (startedAt != IDLE) {
+            return result != STARTING && now - startedAt > maxAge.toNanos() ? OVERDUE : result;
+        }
+        boolean stale = result == STARTING || now - result.checkedAt() > cacheTtl.toNanos();
+        if (stale && checkStartedAt.compareAndSet(IDLE, now)) {
+            checker.execute(this::check);
+        }
+        return result;
+    }
+
+    private void check() {
+        try {
+            boolean databaseUp;
+            try {
+                JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+                jdbc.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+                jdbc.queryForObject("SELECT 1", Integer.class);
+                databaseUp = true;
+            } catch (RuntimeException e) {
+                databaseUp = false;
+                log.warn("Readiness check: database unreachable: {}", e.getMessage());
+            }
+            int pending = pressureMonitor.getPendingThreads();
+            boolean ready = databaseUp && pending < maxPendingThreads;
+            String body = "{\"status\":\"" + (ready ? "UP" : "DOWN") + "\""
+                + ",\"database\":\"" + (databaseUp ? "UP" : "DOWN") + "\""
+                + ",\"pool\":{\"active\":" + pressureMonitor.getActiveConnections()
+                + ",\"idle\":" + pressureMonitor.getIdleConnections()
+                + ",\"pending\":" + pending
+                + ",\"pressure\":\"" + (pressureMonitor.isPressured() ? "HIGH" : "NORMAL") + "\"}}";
+            last = new Result(ready, body.getBytes(StandardCharsets.UTF_8), System.nanoTime());
+        } finally {
+            checkStartedAt.set(IDLE);
+        }
+    }
+}
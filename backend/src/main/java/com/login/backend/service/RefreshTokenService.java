@@ -2,12 +2,17 @@ package com.login.backend.service;
 
 import com.login.backend.entity.RefreshToken;
 import com.login.backend.entity.User;
+import com.login.backend.exception.InvalidRefreshTokenException;
+import com.login.backend.logging.RateLimitedLogger;
 import com.login.backend.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,9 +21,16 @@ import java.util.UUID;
 @Transactional
 public class RefreshTokenService {
 
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final RateLimitedLogger errorLog = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
     @Value("${jwt.refresh-token.expiration}")
     private Long refreshTokenExpiration;
 
@@ -30,21 +42,22 @@ public class RefreshTokenService {
     @Transactional
     public RefreshToken createRefreshToken(User user) {
         try {
+            shardRouter.routeUserId(user.getId());
+
             // Revoke existing tokens for the user (but don't delete them)
             revokeExistingTokensForUser(user);
             
             // Create new refresh token
             RefreshToken refreshToken = new RefreshToken();
             refreshToken.setUser(user);
-            refreshToken.setToken(UUID.randomUUID().toString());
+            // Sharded, the prefix names the user's bucket so the token can be routed without a lookup
+            refreshToken.setToken(shardRouter.tokenPrefix(user.getId()) + UUID.randomUUID());
             refreshToken.setExpiryDate(LocalDateTime.now().plusSeconds(refreshTokenExpiration / 1000));
             refreshToken.setIsRevoked(false);
             
             return refreshTokenRepository.save(refreshToken);
         } catch (Exception e) {
-            // Log the error for debugging
-            System.err.println("Error creating refresh token: " + e.getMessage());
-            e.printStackTrace();
+            errorLog.error("Error creating refresh token", e);
             throw e;
         }
     }
@@ -54,7 +67,9 @@ public class RefreshTokenService {
      * @param token refresh token value
      * @return Optional containing refresh token if found
      */
+    @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token) {
+        shardRouter.routeToken(token);
         return refreshTokenRepository.findByToken(token);
     }
 
@@ -62,30 +77,47 @@ public class RefreshTokenService {
      * Verify if refresh token is valid
      * @param token refresh token value
      * @return refresh token if valid
-     * @throws RuntimeException if token is invalid or expired
+     * @throws InvalidRefreshTokenException if token is revoked or expired
      */
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().compareTo(LocalDateTime.now()) < 0 || token.getIsRevoked()) {
-            throw new RuntimeException("Refresh token was expired or revoked. Please make a new signin request");
+            throw InvalidRefreshTokenException.EXPIRED_OR_REVOKED;
         }
         return token;
     }
 
+    /**
+     * Revoke a refresh token that is about to be rotated
+     * @param token refresh token value
+     * @throws InvalidRefreshTokenException if another request already rotated or revoked it
+     */
+    @Transactional
+    public void claimForRotation(String token) {
+        shardRouter.routeToken(token);
+        if (refreshTokenRepository.revokeIfActive(token) == 0) {
+            throw InvalidRefreshTokenException.EXPIRED_OR_REVOKED;
+        }
+    }
+
     /**
      * Revoke refresh token
      * @param token refresh token value
+     * @return id of the token's user, or null if the token was not found
      */
     @Transactional
-    public void revokeToken(String token) {
+    public Long revokeToken(String token) {
         try {
+            shardRouter.routeToken(token);
             Optional<RefreshToken> refreshToken = refreshTokenRepository.findByToken(token);
             if (refreshToken.isPresent()) {
                 RefreshToken rt = refreshToken.get();
                 rt.setIsRevoked(true);
                 refreshTokenRepository.save(rt);
+                return rt.getUser().getId();
             }
+            return null;
         } catch (Exception e) {
-            System.err.println("Error revoking token: " + e.getMessage());
+            errorLog.error("Error revoking token", e);
             throw e;
         }
     }
@@ -97,31 +129,28 @@ public class RefreshTokenService {
     @Transactional
     private void revokeExistingTokensForUser(User user) {
         try {
-            // Find existing active tokens and mark them as revoked
-            Optional<RefreshToken> existingToken = refreshTokenRepository.findByUser(user);
-            if (existingToken.isPresent()) {
-                RefreshToken token = existingToken.get();
-                if (!token.getIsRevoked()) {
-                    token.setIsRevoked(true);
-                    refreshTokenRepository.save(token);
-                }
-            }
+            // One UPDATE over the user's active tokens (idx_refresh_tokens_user_active)
+            refreshTokenRepository.revokeAllTokensForUser(user);
         } catch (Exception e) {
             // Log the error but don't fail the login process
-            System.err.println("Warning: Could not revoke existing tokens: " + e.getMessage());
+            errorLog.warn("Could not revoke existing tokens", e);
             // Don't throw the exception to avoid breaking the login process
         }
     }
 
     /**
-     * Delete expired refresh tokens
+     * Delete expired refresh tokens on every shard
      */
     @Transactional
     public void deleteExpiredTokens() {
         try {
-            refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now());
+            LocalDateTime now = LocalDateTime.now();
+            shardRouter.onEachShard(false, () -> {
+                refreshTokenRepository.deleteExpiredTokens(now);
+                return null;
+            });
         } catch (Exception e) {
-            System.err.println("Warning: Could not delete expired tokens: " + e.getMessage());
+            errorLog.warn("Could not delete expired tokens", e);
         }
     }
 
@@ -132,9 +161,10 @@ public class RefreshTokenService {
     @Transactional
     public void deleteAllTokensForUser(User user) {
         try {
+            shardRouter.routeUserId(user.getId());
             refreshTokenRepository.deleteAllTokensForUser(user);
         } catch (Exception e) {
-            System.err.println("Warning: Could not delete tokens for user: " + e.getMessage());
+            errorLog.warn("Could not delete tokens for user", e);
         }
     }
 }
@@ -0,0 +1,307 @@
+package com.login.backend.service;
+
+import com.login.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of registered (normalized) emails.
+ * <p>
+ * A negative answer is definite, so callers can skip the database for emails
+ * that were never registered. The filter is built by streaming users.email in
+ * the background after startup and rebuilt periodically so deleted accounts
+ * age out; until the first build completes every email is reported as present.
+ * Builds run on their own thread so streaming the whole table never holds up
+ * the shared scheduler.
+ * Registrations that commit during a rebuild are written to both the live and
+ * the new filter, so a swap never loses an email.
+ * <p>
+ * The filter is per node. Registrations handled by other nodes are picked up
+ * every email-filter.catch-up-interval by reading the emails created since the
+ * last pass, so another node's new user can get a definite miss (and a failed
+ * login) for at most that long.
+ */
+@Service
+public class RegisteredEmailFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${email-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${email-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /** Re-read window before the watermark, covering clock skew between nodes and slow commits */
+    @Value("${email-filter.catch-up-overlap:1m}")
+    private Duration catchUpOverlap;
+
+    private volatile BloomFilter live;
+    private volatile BloomFilter building;
+    private volatile LocalDateTime caughtUpTo;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("auth.email_filter.size_bytes", this, f -> f.live == null ? 0 : f.live.sizeInBytes())
+            .description("Memory used by the registered-email Bloom filter")
+            .register(meterRegistry);
+        Gauge.builder("auth.email_filter.insertions", this, f -> f.live == null ? 0 : f.live.insertions())
+            .description("Emails added to the registered-email Bloom filter")
+            .register(meterRegistry);
+        Gauge.builder("auth.email_filter.expected_fpp", this, f -> f.live == null ? 1.0 : f.live.expectedFalsePositiveRate())
+            .description("Estimated false-positive rate at the current fill level")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Whether an email may be registered
+     * @param email raw email
+     * @return false only if the email is definitely not registered
+     */
+    public boolean mightContain(String email) {
+        BloomFilter filter = live;
+        if (!enabled || filter == null || email == null) {
+            return true;
+        }
+        return filter.mightContain(EmailNormalizer.normalize(email));
+    }
+
+    /**
+     * Record a newly registered email once the current transaction commits.
+     * Adding after commit guarantees a concurrent rebuild either streams the
+     * row or sees the add in its building filter.
+     * @param email raw email
+     */
+    public void addAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(email);
+            }
+        });
+    }
+
+    /**
+     * Record a registered email
+     * @param email raw email
+     */
+    public void add(String email) {
+        String key = EmailNormalizer.normalize(email);
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        BloomFilter filter = live;
+        if (filter != null) {
+            filter.put(key);
+        }
+    }
+
+    /**
+     * Start a rebuild on the rebuild thread unless one is already running.
+     * Triggered once right after startup and then every email-filter.rebuild-interval.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${email-filter.rebuild-interval:6h}")
+    public void scheduleRebuild() {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Build a fresh filter from users.email and swap it in
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long startedNanos = System.nanoTime();
+        LocalDateTime started = LocalDateTime.now();
+        long capacity = Math.max(expectedInsertions, live == null ? 0 : live.insertions() * 5 / 4);
+        BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+        building = next;
+        try {
+            // Not read-only, so it runs on the primary: a lagging replica could miss
+            // a registration that committed just before building was set
+            shardRouter.onEachShard(false, () -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> next.put(EmailNormalizer.normalize(email)));
+                }
+                return null;
+            });
+            live = next;
+            caughtUpTo = started;
+            log.info("Registered-email filter built: {} emails, {} KiB, expected fpp {} in {} ms",
+                next.insertions(), next.sizeInBytes() / 1024, String.format("%.4f", next.expectedFalsePositiveRate()),
+                (System.nanoTime() - startedNanos) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Registered-email filter rebuild failed, keeping the previous filter: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Add emails registered since the last rebuild or catch-up, including
+     * those registered through other nodes
+     */
+    @Scheduled(fixedDelayString = "${email-filter.catch-up-interval:5s}")
+    public void catchUp() {
+        LocalDateTime since = caughtUpTo;
+        if (!enabled || live == null || since == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        try {
+            // Primary, like the rebuild: the replica may not have the new rows yet
+            shardRouter.onEachShard(false, () -> {
+                userRepository.findEmailsCreatedSince(since.minus(catchUpOverlap)).forEach(this::add);
+                return null;
+            });
+            caughtUpTo = started;
+        } catch (RuntimeException e) {
+            log.warn("Registered-email filter catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter over an AtomicLongArray, using double hashing
+     * (Kirsch-Mitzenmacher) of a 64-bit string hash.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final LongAdder insertions = new LongAdder();
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            double ln2 = Math.log(2);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+        }
+
+        void put(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            boolean changed = false;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = bits.get(word);
+                while ((current & mask) == 0) {
+                    if (bits.compareAndSet(word, current, current | mask)) {
+                        changed = true;
+                        break;
+                    }
+                    current = bits.get(word);
+                }
+            }
+            // Catch-up passes re-add recent emails; count each one once
+            if (changed) {
+                insertions.increment();
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long insertions() {
+            return insertions.sum();
+        }
+
+        long sizeInBytes() {
+            return bitCount / 8;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashCount * (double) insertions() / bitCount), hashCount);
+        }
+
+        // FNV-1a over the UTF-16 code units, finished with a murmur3 mix
+        private static long hash(String key) {
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.login.backend.service;
+
+import com.login.backend.config.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the shard for a user's rows and binds it to the current transaction.
+ * <p>
+ * Every user belongs to one of {@link #BUCKETS} fixed buckets, a hash of the
+ * normalized email. The bucket is also encoded in the user's id (id mod
+ * BUCKETS) and in the prefix of their refresh tokens, so email, id and token
+ * lookups all find the same shard without a directory. Buckets map to shards
+ * with jump consistent hashing; adding a shard moves only the buckets the new
+ * shard takes over, which ShardRebalancer copies across.
+ * <p>
+ * With sharding disabled every method routes to the single data source and
+ * ids and tokens keep their unsharded form.
+ */
+@Service
+public class ShardRouter {
+
+    /** Fixed for the life of a cluster: it is baked into user ids and refresh tokens */
+    public static final int BUCKETS = 1024;
+
+    @Value("${app.datasource.shards.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.datasource.shards.urls:}")
+    private List<String> urls;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * @return true when users are spread over several databases
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return number of shards (1 when sharding is disabled)
+     */
+    public int shardCount() {
+        return enabled ? urls.size() : 1;
+    }
+
+    /**
+     * Bucket of an email address
+     * @param email user's email, normalized or not
+     * @return bucket in [0, BUCKETS)
+     */
+    public static int bucketOf(String email) {
+        String normalized = EmailNormalizer.normalize(email);
+        // FNV-1a over the UTF-16 code units, then a final avalanche; stable across JVMs
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) Long.remainderUnsigned(hash, BUCKETS);
+    }
+
+    /**
+     * Shard that owns a bucket (jump consistent hash, Lamping and Veach 2014)
+     * @param bucket bucket in [0, BUCKETS)
+     * @param shardCount number of shards
+     * @return shard index in [0, shardCount)
+     */
+    public static int shardOfBucket(int bucket, int shardCount) {
+        long key = (bucket + 1) * 0x9E3779B97F4A7C15L;
+        long b = -1;
+        long j = 0;
+        while (j < shardCount) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * Bucket encoded in a user id issued while sharding was enabled
+     * @param userId user id
+     * @return bucket in [0, BUCKETS)
+     */
+    public static int bucketOfUserId(long userId) {
+        return (int) Math.floorMod(userId, (long) BUCKETS);
+    }
+
+    /**
+     * Bucket encoded in a refresh token's prefix ("1a3.&lt;uuid&gt;")
+     * @param token refresh token value
+     * @return bucket, or -1 if the token has no valid prefix
+     */
+    public static int bucketOfToken(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot < 1 || dot > 3) {
+            return -1;
+        }
+        int bucket = 0;
+        for (int i = 0; i < dot; i++) {
+            int digit = Character.digit(token.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            bucket = bucket * 16 + digit;
+        }
+        return bucket < BUCKETS ? bucket : -1;
+    }
+
+    /**
+     * @param email user's email
+     * @return shard holding the user
+     */
+    public int shardForEmail(String email) {
+        return enabled ? shardOfBucket(bucketOf(email), shardCount()) : 0;
+    }
+
+    /**
+     * @param userId user id
+     * @return shard holding the user
+     */
+    public int shardForUserId(long userId) {
+        return enabled ? shardOfBucket(bucketOfUserId(userId), shardCount()) : 0;
+    }
+
+    /**
+     * @param token refresh token value
+     * @return shard holding the token (shard 0 for tokens without a prefix)
+     */
+    public int shardForToken(String token) {
+        int bucket = enabled ? bucketOfToken(token) : -1;
+        return bucket < 0 ? 0 : shardOfBucket(bucket, shardCount());
+    }
+
+    /**
+     * Multiplier for new user ids: id = nextval * multiplier + bucket
+     * @return BUCKETS when sharded, otherwise 1
+     */
+    public long idMultiplier() {
+        return enabled ? BUCKETS : 1;
+    }
+
+    /**
+     * @param email normalized email of a new user
+     * @return bucket to add to the new user's id (0 when unsharded)
+     */
+    public int idBucket(String email) {
+        return enabled ? bucketOf(email) : 0;
+    }
+
+    /**
+     * Prefix for a new refresh token value
+     * @param userId owner's id
+     * @return "&lt;bucket hex&gt;." when sharded, otherwise empty
+     */
+    public String tokenPrefix(long userId) {
+        return enabled ? Integer.toHexString(bucketOfUserId(userId)) + "." : "";
+    }
+
+    /**
+     * Route the current transaction to the user's shard
+     * @param email user's email
+     */
+    public void routeEmail(String email) {
+        if (enabled && email != null) {
+            bind(shardForEmail(email));
+        }
+    }
+
+    /**
+     * Route the current transaction to the user's shard
+     * @param userId user id
+     */
+    public void routeUserId(Long userId) {
+        if (enabled && userId != null) {
+            bind(shardForUserId(userId));
+        }
+    }
+
+    /**
+     * Route the current transaction to the shard holding a refresh token
+     * @param token refresh token value
+     */
+    public void routeToken(String token) {
+        if (enabled && token != null) {
+            bind(shardForToken(token));
+        }
+    }
+
+    /**
+     * Run work in its own transaction on one shard. Unsharded, the work joins
+     * the caller's transaction if there is one.
+     * @param shard shard index
+     * @param readOnly whether the transaction is read-only
+     * @param work work to run
+     * @return the work's result
+     */
+    public <T> T onShard(int shard, boolean readOnly, Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        if (!enabled) {
+            return template.execute(status -> work.get());
+        }
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // A caller's transaction is suspended for the duration, and so is its shard binding
+        Integer outer = ShardRoutingDataSource.currentShard();
+        ShardRoutingDataSource.clear();
+        try {
+            return template.execute(status -> {
+                bind(shard);
+                return work.get();
+            });
+        } finally {
+            if (outer != null) {
+                ShardRoutingDataSource.bind(outer);
+            } else {
+                ShardRoutingDataSource.clear();
+            }
+        }
+    }
+
+    /**
+     * Run work once per shard, each in its own transaction
+     * @param readOnly whether the transactions are read-only
+     * @param work work to run
+     * @return results in shard order
+     */
+    public <T> List<T> onEachShard(boolean readOnly, Supplier<T> work) {
+        int count = shardCount();
+        List<T> results = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            results.add(onShard(shard, readOnly, work));
+        }
+        return results;
+    }
+
+    /**
+     * Bind a shard to the current transaction until it completes. The
+     * connection is taken lazily, so this must happen before the first
+     * statement; a transaction cannot span shards.
+     * @param shard shard index
+     * @throws IllegalStateException outside a transaction, or if the
+     *         transaction is already bound to another shard
+     */
+    private void bind(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard routing requires a transaction");
+        }
+        Integer current = ShardRoutingDataSource.currentShard();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("Transaction is bound to shard " + current + ", not " + shard);
+            }
+            return;
+        }
+        ShardRoutingDataSource.bind(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ShardRoutingDataSource.clear();
+            }
+        });
+    }
+}
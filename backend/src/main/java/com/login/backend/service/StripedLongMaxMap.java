@@ -0,0 +1,170 @@
+package com.login.backend.service;
+
+/**
+ * Coalescing map from positive long keys to the largest long value seen.
+ * <p>
+ * Keys and values live in primitive open-addressing tables split into lock
+ * stripes, so recording an entry neither boxes nor allocates and writers for
+ * different keys rarely contend. {@link #drain()} swaps every stripe for an
+ * empty one and returns what was collected.
+ */
+final class StripedLongMaxMap {
+
+    private static final int STRIPES = 16;
+    private static final long EMPTY = 0L;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int initialCapacity;
+
+    /**
+     * @param expectedKeys expected number of distinct keys between drains
+     */
+    StripedLongMaxMap(int expectedKeys) {
+        this.initialCapacity = Math.max(16, Integer.highestOneBit(Math.max(1, expectedKeys / STRIPES) * 2 - 1) << 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(initialCapacity);
+        }
+    }
+
+    /**
+     * Record a value, keeping the larger one if the key is already present
+     * @param key positive key
+     * @param value value to merge
+     */
+    void mergeMax(long key, long value) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Key must be positive");
+        }
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.mergeMax(key, value, (int) hash);
+        }
+    }
+
+    /**
+     * @return number of keys currently held (approximate under concurrent writes)
+     */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Remove and return every entry
+     * @return collected entries
+     */
+    Entries drain() {
+        long[][] keyTables = new long[STRIPES][];
+        long[][] valueTables = new long[STRIPES][];
+        int total = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                if (stripe.size == 0) {
+                    continue;
+                }
+                keyTables[i] = stripe.keys;
+                valueTables[i] = stripe.values;
+                total += stripe.size;
+                stripe.reset(initialCapacity);
+            }
+        }
+
+        long[] keys = new long[total];
+        long[] values = new long[total];
+        int n = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            long[] stripeKeys = keyTables[i];
+            if (stripeKeys == null) {
+                continue;
+            }
+            for (int slot = 0; slot < stripeKeys.length; slot++) {
+                if (stripeKeys[slot] != EMPTY) {
+                    keys[n] = stripeKeys[slot];
+                    values[n] = valueTables[i][slot];
+                    n++;
+                }
+            }
+        }
+        return new Entries(keys, values);
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Drained entries as parallel arrays.
+     */
+    record Entries(long[] keys, long[] values) {
+
+        int size() {
+            return keys.length;
+        }
+    }
+
+    private static final class Stripe {
+
+        long[] keys;
+        long[] values;
+        int size;
+
+        Stripe(int capacity) {
+            reset(capacity);
+        }
+
+        void reset(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            size = 0;
+        }
+
+        void mergeMax(long key, long value, int hash) {
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (true) {
+                long existing = keys[slot];
+                if (existing == key) {
+                    if (value > values[slot]) {
+                        values[slot] = value;
+                    }
+                    return;
+                }
+                if (existing == EMPTY) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    if (++size * 4 > keys.length * 3) {
+                        grow();
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                long key = oldKeys[i];
+                if (key == EMPTY) {
+                    continue;
+                }
+                int slot = (int) mix(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
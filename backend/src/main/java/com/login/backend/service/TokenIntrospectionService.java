@@ -0,0 +1,214 @@
+package com.login.backend.service;
+
+import com.login.backend.dto.IntrospectionResponse;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RFC 7662-style introspection of many access tokens per call for internal
+ * services (gateway, sidecars), so they neither hold jwt.secret nor call
+ * once per token.
+ * <p>
+ * Tokens missing from the verified-result cache are checked with
+ * {@link JwtService#verify}, split across a CPU-sized pool when the batch is
+ * large enough to be worth it. Only successful verifications are cached, and
+ * entries are swept once their token expires. Like the JWT filter, this checks
+ * signature and expiry only: a deactivated user's token stays active until it
+ * expires.
+ */
+@Service
+public class TokenIntrospectionService {
+
+    private static final String ACCESS_TOKEN = "access_token";
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${introspection.clients:}")
+    private List<String> clients;
+
+    @Value("${introspection.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${introspection.parallel-threshold:16}")
+    private int parallelThreshold;
+
+    @Value("${introspection.cache.max-entries:100000}")
+    private int cacheMaxEntries;
+
+    private final ConcurrentHashMap<String, VerifiedToken> cache = new ConcurrentHashMap<>();
+    private Map<String, byte[]> clientSecrets;
+    private ExecutorService verifier;
+    private int parallelism;
+    private Counter cacheHits;
+    private Counter verified;
+
+    @PostConstruct
+    void init() {
+        clientSecrets = new HashMap<>();
+        for (String client : clients) {
+            int colon = client.indexOf(':');
+            if (colon > 0) {
+                clientSecrets.put(client.substring(0, colon).trim(),
+                    client.substring(colon + 1).trim().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        parallelism = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        verifier = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "token-introspection-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        cacheHits = Counter.builder("auth.introspection.tokens").tag("source", "cache").register(meterRegistry);
+        verified = Counter.builder("auth.introspection.tokens").tag("source", "verified").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifier.shutdown();
+    }
+
+    /**
+     * Check an HTTP Basic Authorization header against introspection.clients
+     * @param authorizationHeader Authorization header value
+     * @return true if it names a configured client with the right secret
+     */
+    public boolean isAuthorizedClient(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Basic ")) {
+            return false;
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(authorizationHeader.substring(6)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        int colon = credentials.indexOf(':');
+        if (colon <= 0) {
+            return false;
+        }
+        byte[] expected = clientSecrets.get(credentials.substring(0, colon));
+        return expected != null
+            && MessageDigest.isEqual(expected, credentials.substring(colon + 1).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return largest number of tokens accepted in one call
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Introspect a batch of tokens
+     * @param tokens tokens to check
+     * @return one result per token, in request order
+     */
+    public List<IntrospectionResponse.Result> introspect(List<String> tokens) {
+        Instant now = Instant.now();
+        IntrospectionResponse.Result[] results = new IntrospectionResponse.Result[tokens.size()];
+        List<Integer> pending = new ArrayList<>();
+
+        for (int i = 0; i < results.length; i++) {
+            String token = tokens.get(i);
+            VerifiedToken hit = token == null ? null : cache.get(token);
+            if (hit != null && hit.isActiveAt(now)) {
+                results[i] = toResult(hit, true);
+            } else if (hit != null) {
+                cache.remove(token, hit);
+                results[i] = IntrospectionResponse.Result.INACTIVE;
+            } else {
+                pending.add(i);
+            }
+        }
+        cacheHits.increment(results.length - pending.size());
+        verified.increment(pending.size());
+
+        if (pending.size() < parallelThreshold) {
+            verifyRange(tokens, pending, 0, pending.size(), results, now);
+        } else {
+            int chunks = Math.min(parallelism, pending.size());
+            int chunkSize = (pending.size() + chunks - 1) / chunks;
+            List<CompletableFuture<Void>> futures = new ArrayList<>(chunks);
+            for (int from = chunkSize; from < pending.size(); from += chunkSize) {
+                int start = from;
+                int end = Math.min(pending.size(), from + chunkSize);
+                futures.add(CompletableFuture.runAsync(
+                    () -> verifyRange(tokens, pending, start, end, results, now), verifier));
+            }
+            // The calling thread takes the first chunk itself
+            verifyRange(tokens, pending, 0, Math.min(chunkSize, pending.size()), results, now);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+        return List.of(results);
+    }
+
+    private void verifyRange(List<String> tokens, List<Integer> pending, int from, int to,
+                             IntrospectionResponse.Result[] results, Instant now) {
+        for (int p = from; p < to; p++) {
+            int index = pending.get(p);
+            results[index] = verifyAndCache(tokens.get(index), now);
+        }
+    }
+
+    private IntrospectionResponse.Result verifyAndCache(String token, Instant now) {
+        if (token == null || token.isEmpty()) {
+            return IntrospectionResponse.Result.INACTIVE;
+        }
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return IntrospectionResponse.Result.INACTIVE;
+        }
+        if (!verifiedToken.isActiveAt(now)) {
+            return IntrospectionResponse.Result.INACTIVE;
+        }
+        // When full, new results are simply not cached until the sweep frees room
+        if (cache.size() < cacheMaxEntries) {
+            cache.put(token, verifiedToken);
+        }
+        return toResult(verifiedToken, false);
+    }
+
+    @Scheduled(fixedDelayString = "${introspection.cache.eviction-interval:30s}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        cache.values().removeIf(entry -> !entry.isActiveAt(now));
+    }
+
+    private static IntrospectionResponse.Result toResult(VerifiedToken token, boolean cached) {
+        return new IntrospectionResponse.Result(
+            true,
+            token.subject(),
+            token.expiresAt().getEpochSecond(),
+            token.issuedAt() == null ? null : token.issuedAt().getEpochSecond(),
+            ACCESS_TOKEN,
+            cached);
+    }
+}
@@ -0,0 +1,179 @@
+package com.login.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+/**
+ * Write-coalesced last_login_at / last_seen_at tracking.
+ * <p>
+ * Logins and authenticated requests only record (user id, time) in memory,
+ * keeping the newest time per user. Every activity.flush-interval the
+ * collected entries are written with one UPDATE per column, joining against
+ * unnested arrays, and pending entries are flushed again on shutdown.
+ */
+@Service
+public class UserActivityTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityTracker.class);
+
+    private static final String UPDATE_LAST_LOGIN =
+        "UPDATE users u SET last_login_at = GREATEST(u.last_login_at, v.ts) " +
+        "FROM unnest(?::bigint[], ?::timestamp[]) AS v(id, ts) WHERE u.id = v.id";
+
+    private static final String UPDATE_LAST_SEEN =
+        "UPDATE users u SET last_seen_at = GREATEST(u.last_seen_at, v.ts) " +
+        "FROM unnest(?::bigint[], ?::timestamp[]) AS v(id, ts) WHERE u.id = v.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${activity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${activity.expected-users:10000}")
+    private int expectedUsers;
+
+    @Value("${activity.max-rows-per-statement:5000}")
+    private int maxRowsPerStatement;
+
+    private StripedLongMaxMap pendingLogins;
+    private StripedLongMaxMap pendingSeen;
+    private Counter flushedRows;
+    private Counter failedRows;
+
+    @PostConstruct
+    void init() {
+        pendingLogins = new StripedLongMaxMap(expectedUsers);
+        pendingSeen = new StripedLongMaxMap(expectedUsers);
+        flushedRows = Counter.builder("user.activity.flushed").register(meterRegistry);
+        failedRows = Counter.builder("user.activity.failed").register(meterRegistry);
+        Gauge.builder("user.activity.pending", this, tracker -> tracker.pendingSeen.size() + tracker.pendingLogins.size())
+            .description("Coalesced activity updates waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record a successful login; also counts as activity
+     * @param userId user id
+     */
+    public void recordLogin(long userId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        pendingLogins.mergeMax(userId, now);
+        pendingSeen.mergeMax(userId, now);
+    }
+
+    /**
+     * Record an authenticated request
+     * @param userId user id
+     */
+    public void recordSeen(long userId) {
+        if (!enabled) {
+            return;
+        }
+        pendingSeen.mergeMax(userId, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${activity.flush-interval:10s}")
+    public synchronized void flush() {
+        flush(pendingLogins, UPDATE_LAST_LOGIN);
+        flush(pendingSeen, UPDATE_LAST_SEEN);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void flush(StripedLongMaxMap pending, String sql) {
+        StripedLongMaxMap.Entries entries = pending.drain();
+        int total = entries.size();
+        for (int from = 0; from < total; from += maxRowsPerStatement) {
+            int to = Math.min(total, from + maxRowsPerStatement);
+            long[] ids = Arrays.copyOfRange(entries.keys(), from, to);
+            long[] times = Arrays.copyOfRange(entries.values(), from, to);
+            try {
+                update(sql, ids, times);
+                flushedRows.increment(ids.length);
+            } catch (RuntimeException e) {
+                // Put the chunk back; merging keeps the newest time, so a retry is safe
+                for (int i = 0; i < ids.length; i++) {
+                    pending.mergeMax(ids[i], times[i]);
+                }
+                failedRows.increment(ids.length);
+                log.warn("Could not flush {} activity updates: {}", ids.length, e.getMessage());
+            }
+        }
+    }
+
+    private void update(String sql, long[] ids, long[] times) {
+        int shards = shardRouter.shardCount();
+        if (shards == 1) {
+            jdbcTemplate.update(connection -> prepare(connection, sql, ids, times));
+            return;
+        }
+        // One statement per shard, each on that shard's connection
+        int[] shardOf = new int[ids.length];
+        int[] counts = new int[shards];
+        for (int i = 0; i < ids.length; i++) {
+            shardOf[i] = shardRouter.shardForUserId(ids[i]);
+            counts[shardOf[i]]++;
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            if (counts[shard] == 0) {
+                continue;
+            }
+            long[] shardIds = new long[counts[shard]];
+            long[] shardTimes = new long[counts[shard]];
+            for (int i = 0, n = 0; i < ids.length; i++) {
+                if (shardOf[i] == shard) {
+                    shardIds[n] = ids[i];
+                    shardTimes[n++] = times[i];
+                }
+            }
+            shardRouter.onShard(shard, false,
+                () -> jdbcTemplate.update(connection -> prepare(connection, sql, shardIds, shardTimes)));
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, long[] ids, long[] times)
+            throws SQLException {
+        Long[] boxedIds = new Long[ids.length];
+        Timestamp[] timestamps = new Timestamp[times.length];
+        for (int i = 0; i < ids.length; i++) {
+            boxedIds[i] = ids[i];
+            timestamps[i] = new Timestamp(times[i]);
+        }
+        Array idArray = connection.createArrayOf("bigint", boxedIds);
+        Array timeArray = connection.createArrayOf("timestamp", timestamps);
+        PreparedStatement ps = connection.prepareStatement(sql);
+        ps.setArray(1, idArray);
+        ps.setArray(2, timeArray);
+        return ps;
+    }
+}
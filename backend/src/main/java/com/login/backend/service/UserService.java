@@ -1,50 +1,90 @@
 package com.login.backend.service;
 
 import com.login.backend.dto.RegisterRequest;
+import com.login.backend.dto.UserCursor;
+import com.login.backend.dto.UserPageResponse;
+import com.login.backend.dto.UserProfile;
+import com.login.backend.dto.UserSummary;
+import com.login.backend.dto.UserVersion;
 import com.login.backend.entity.User;
 import com.login.backend.exception.UserAlreadyExistsException;
+import com.login.backend.logging.RateLimitedLogger;
 import com.login.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
-@Transactional
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    private static final RateLimitedLogger errorLog = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final List<Boolean> ANY_ACTIVE_STATE = List.of(true, false);
+
+    private static final Comparator<UserSummary> NEWEST_FIRST =
+        Comparator.comparing(UserSummary::getCreatedAt).thenComparing(UserSummary::getId).reversed();
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
     /**
      * Register a new user
      * @param request registration request
      * @return registered user
      * @throws UserAlreadyExistsException if email already exists
      */
+    @Transactional
     public User registerUser(RegisterRequest request) {
         try {
-            // Check if user already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new UserAlreadyExistsException("User with email " + request.getEmail() + " already exists");
-            }
+            String email = EmailNormalizer.normalize(request.getEmail());
+            shardRouter.routeEmail(email);
+
+            // Single atomic insert; a conflict on the normalized email means the user exists
+            User user = userRepository.insertIfEmailAbsent(
+                    request.getFullName(),
+                    email,
+                    passwordEncoder.encode(request.getPassword()),
+                    LocalDateTime.now(),
+                    shardRouter.idMultiplier(),
+                    shardRouter.idBucket(email))
+                .orElseThrow(() -> UserAlreadyExistsException.INSTANCE);
 
-            // Create new user
-            User user = new User();
-            user.setFullName(request.getFullName());
-            user.setEmail(request.getEmail());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-            user.setIsActive(true);
-
-            return userRepository.save(user);
-        } catch (Exception e) {
-            // Log the error for debugging
-            System.err.println("Error registering user: " + e.getMessage());
+            registeredEmailFilter.addAfterCommit(email);
+            readYourWritesTracker.recordWrite(email);
+            return user;
+        } catch (UserAlreadyExistsException e) {
+            log.debug("Registration rejected: email already registered");
+            throw e;
+        } catch (RuntimeException e) {
+            errorLog.error("Error registering user", e);
             throw e;
         }
     }
@@ -54,8 +94,35 @@ public class UserService {
      * @param email user's email
      * @return Optional containing user if found
      */
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmailAndIsActive(email, true);
+        shardRouter.routeEmail(email);
+        readYourWritesTracker.routeReadsFor(email);
+        return userRepository.findByEmailAndIsActive(EmailNormalizer.normalize(email), true);
+    }
+
+    /**
+     * Find the version stamp of an active user, for conditional requests
+     * @param email user's email
+     * @return Optional containing the version stamp if found
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserVersion> findVersionByEmail(String email) {
+        shardRouter.routeEmail(email);
+        readYourWritesTracker.routeReadsFor(email);
+        return userRepository.findVersionByEmail(EmailNormalizer.normalize(email));
+    }
+
+    /**
+     * Find the profile of an active user without loading the entity
+     * @param email user's email
+     * @return Optional containing the profile if found
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserProfile> findProfileByEmail(String email) {
+        shardRouter.routeEmail(email);
+        readYourWritesTracker.routeReadsFor(email);
+        return userRepository.findProfileByEmail(EmailNormalizer.normalize(email));
     }
 
     /**
@@ -63,7 +130,9 @@ public class UserService {
      * @param id user's ID
      * @return Optional containing user if found
      */
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
+        shardRouter.routeUserId(id);
         return userRepository.findById(id);
     }
 
@@ -72,8 +141,10 @@ public class UserService {
      * @param email user's email
      * @return true if user exists, false otherwise
      */
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        shardRouter.routeEmail(email);
+        return userRepository.existsByEmail(EmailNormalizer.normalize(email));
     }
 
     /**
@@ -81,7 +152,10 @@ public class UserService {
      * @param user user entity to update
      * @return updated user
      */
+    @Transactional
     public User updateUser(User user) {
+        shardRouter.routeUserId(user.getId());
+        readYourWritesTracker.recordWrite(user.getEmail());
         return userRepository.save(user);
     }
 
@@ -89,10 +163,13 @@ public class UserService {
      * Deactivate user account
      * @param userId user's ID
      */
+    @Transactional
     public void deactivateUser(Long userId) {
+        shardRouter.routeUserId(userId);
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
+            readYourWritesTracker.recordWrite(user.getEmail());
             user.setIsActive(false);
             userRepository.save(user);
         }
@@ -104,6 +181,7 @@ public class UserService {
      * @param rawPassword raw password to validate
      * @return true if credentials are valid, false otherwise
      */
+    @Transactional(readOnly = true)
     public boolean validateCredentials(String email, String rawPassword) {
         Optional<User> userOpt = findByEmail(email);
         if (userOpt.isPresent()) {
@@ -112,4 +190,61 @@ public class UserService {
         }
         return false;
     }
+
+    /**
+     * List or search users with keyset pagination on (createdAt, id), newest first.
+     * When sharded, each shard returns its first page and the pages are merged.
+     * @param isActive optional active-status filter, null for all users
+     * @param query optional case-insensitive search on email or full name
+     * @param prefixOnly match the query as a prefix instead of a substring
+     * @param cursor cursor returned by the previous page, null for the first page
+     * @param limit requested page size, clamped to 1..200
+     * @return page of users with the cursor for the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public UserPageResponse listUsers(Boolean isActive, String query, boolean prefixOnly, String cursor, int limit) {
+        UserCursor position = UserCursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Boolean> activeStates = isActive == null ? ANY_ACTIVE_STATE : List.of(isActive);
+        // Fetch one extra row to know whether another page exists
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+
+        String pattern = null;
+        if (query != null && !query.isBlank()) {
+            pattern = escapeLike(query.trim().toLowerCase(Locale.ROOT)) + "%";
+            if (!prefixOnly) {
+                pattern = "%" + pattern;
+            }
+        }
+        String searchPattern = pattern;
+        List<List<UserSummary>> shardRows = shardRouter.onEachShard(true, () -> searchPattern == null
+            ? userRepository.findPageBefore(position.createdAt(), position.id(), activeStates, page)
+            : userRepository.searchPageBefore(searchPattern, position.createdAt(), position.id(), activeStates, page));
+
+        List<UserSummary> rows;
+        if (shardRows.size() == 1) {
+            rows = shardRows.get(0);
+        } else {
+            rows = new ArrayList<>();
+            shardRows.forEach(rows::addAll);
+            rows.sort(NEWEST_FIRST);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new UserPageResponse(rows, null);
+        }
+        List<UserSummary> items = rows.subList(0, pageSize);
+        UserSummary last = items.get(pageSize - 1);
+        return new UserPageResponse(items, new UserCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Escape LIKE wildcards so user input is matched literally
+     * @param value raw search text
+     * @return escaped text
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
@@ -0,0 +1,19 @@
+package com.login.backend.service;
+
+import java.time.Instant;
+
+/**
+ * Claims of an access token whose signature and expiry have been checked.
+ * userId is set for compact and binary tokens, whose subject is the user id;
+ * issuedAt is null for formats that omit it.
+ */
+public record VerifiedToken(String subject, Long userId, Instant issuedAt, Instant expiresAt) {
+
+    /**
+     * @param now current time
+     * @return true while the token has not expired
+     */
+    public boolean isActiveAt(Instant now) {
+        return expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,12 @@
+-- Shared store for Idempotency-Key responses (idempotency.persistent=true), so a retry
+-- that lands on another node still replays the first response. Rows expire after
+-- idempotency.ttl and are deleted by the application.
+CREATE UNLOGGED TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(300) PRIMARY KEY,
+    fingerprint BYTEA NOT NULL,
+    status SMALLINT NOT NULL,
+    content_type VARCHAR(100),
+    body BYTEA NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys (expires_at);
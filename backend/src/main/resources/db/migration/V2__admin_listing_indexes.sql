@@ -0,0 +1,9 @@
+-- Admin listing: keyset pagination on (created_at, id) newest first.
+-- INCLUDE makes list pages index-only scans (keep autovacuum healthy so the visibility map is current).
+CREATE INDEX IF NOT EXISTS idx_users_created_id_covering
+    ON users (created_at DESC, id DESC) INCLUDE (email, full_name, is_active);
+
+-- Admin search: case-insensitive prefix/substring LIKE on email and full name
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops);
@@ -0,0 +1,4 @@
+-- Every email lookup and the registration ON CONFLICT target use lower(email).
+-- Existing rows that differ only by case must be merged before this index can be built.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_lower ON users (lower(email));
+DROP INDEX IF EXISTS idx_users_email;
@@ -0,0 +1,15 @@
+-- Authentication audit trail, partitioned by month.
+-- The application creates the current and next month's partitions (auth_events_YYYY_MM) itself;
+-- retire old months with DETACH PARTITION / DROP TABLE.
+CREATE TABLE IF NOT EXISTS auth_events (
+    occurred_at TIMESTAMP NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    outcome VARCHAR(16) NOT NULL,
+    user_id BIGINT,
+    email VARCHAR(255),
+    client_ip VARCHAR(45),
+    user_agent VARCHAR(512),
+    latency_micros BIGINT NOT NULL
+) PARTITION BY RANGE (occurred_at);
+CREATE INDEX IF NOT EXISTS idx_auth_events_user_time ON auth_events (user_id, occurred_at);
+CREATE INDEX IF NOT EXISTS idx_auth_events_email_time ON auth_events (email, occurred_at);
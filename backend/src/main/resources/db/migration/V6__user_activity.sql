@@ -0,0 +1,10 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_login_at TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_seen_at TIMESTAMP;
+
+-- Limited to profile columns so batched last_login_at/last_seen_at writes
+-- do not change updated_at (which also drives profile ETags).
+DROP TRIGGER IF EXISTS update_users_updated_at ON users;
+CREATE TRIGGER update_users_updated_at
+    BEFORE UPDATE OF full_name, email, password, profile_picture, avatar_hash, is_active ON users
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
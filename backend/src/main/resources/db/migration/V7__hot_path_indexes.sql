@@ -0,0 +1,21 @@
+-- Indexes matched to the queries in UserRepository and RefreshTokenRepository.
+-- Built CONCURRENTLY so writers are not blocked; this migration runs outside a
+-- transaction (see V7__hot_path_indexes.sql.conf).
+--
+-- users
+--   findByEmail / findByEmailAndIsActive / existsByEmail / findVersionByEmail / insertIfEmailAbsent
+--       -> ux_users_email_lower (V4)
+--   findPageBefore / searchPageBefore -> idx_users_created_id_covering, trigram indexes (V2)
+--   idx_users_active (is_active alone) is never selective enough to be used.
+--   The users_email_key constraint is implied by ux_users_email_lower (dropped in V8).
+-- refresh_tokens
+--   findByToken -> refresh_tokens_token_key (the UNIQUE constraint); idx_refresh_tokens_token duplicates it.
+--   revokeAllTokensForUser (user_id = ? AND is_revoked = false) -> idx_refresh_tokens_user_active
+--   deleteAllTokensForUser / ON DELETE CASCADE from users -> idx_refresh_tokens_user_id
+--   deleteExpiredTokens (expiry_date < ?) -> idx_refresh_tokens_expiry
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_user_active
+    ON refresh_tokens (user_id) WHERE is_revoked = false;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_refresh_tokens_token;
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_active;
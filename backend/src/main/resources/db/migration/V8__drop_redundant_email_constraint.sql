@@ -0,0 +1,2 @@
+-- Exact-case uniqueness is implied by ux_users_email_lower
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key;
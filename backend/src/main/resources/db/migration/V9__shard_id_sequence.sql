@@ -0,0 +1,10 @@
+-- Interleave users_id_seq across shards: shard i hands out i+1, i+1+stride, ...
+-- so ids stay unique when ShardRebalancer moves users between databases.
+-- Placeholders come from ShardDataSourceConfig; unsharded they are shardIndex=0,
+-- idStride=1 and this leaves the sequence unchanged.
+ALTER SEQUENCE users_id_seq INCREMENT BY ${idStride};
+
+SELECT setval('users_id_seq',
+              base + (((${shardIndex} + 1 - base) % ${idStride}) + ${idStride}) % ${idStride},
+              false)
+FROM (SELECT last_value + CASE WHEN is_called THEN 1 ELSE 0 END AS base FROM users_id_seq) AS s;
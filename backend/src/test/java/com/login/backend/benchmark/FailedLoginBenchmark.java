@@ -0,0 +1,94 @@
+package com.login.backend.benchmark;
+
+import com.login.backend.controller.ApiExceptionHandler;
+import com.login.backend.dto.LoginRequest;
+import com.login.backend.entity.User;
+import com.login.backend.exception.AuthException;
+import com.login.backend.service.AuthenticationService;
+import com.login.backend.service.RegisteredEmailFilter;
+import com.login.backend.service.ShardRouter;
+import com.login.backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A rejected login through AuthenticationService.login and ApiExceptionHandler,
+ * from the request to the pre-encoded response body. "unknownEmail" is a
+ * registered-email filter miss, "filterFalsePositive" a filter hit with no
+ * such user, and "wrongPassword" an existing user. All three check one BCrypt
+ * hash, so their scores should match. Lookups are in memory and the service
+ * is called without its transactional proxy, so the numbers are password
+ * hashing plus the failure path, not database time. Use bcryptStrength=4 to
+ * make the failure-path overhead visible next to the hash; to compare with
+ * the untyped errors, run this on the tree before they were introduced.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FailedLoginBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+
+    @Param({"unknownEmail", "filterFalsePositive", "wrongPassword"})
+    public String failure;
+
+    /** 10 is the application's default; 4 is the minimum */
+    @Param({"4", "10"})
+    public int bcryptStrength;
+
+    private AuthenticationService authenticationService;
+    private ApiExceptionHandler exceptionHandler;
+    private LoginRequest request;
+
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        User user = new User("Benchmark User", EMAIL, passwordEncoder.encode("correct-password"));
+        user.setId(42L);
+        Optional<User> found = "wrongPassword".equals(failure) ? Optional.of(user) : Optional.empty();
+        boolean filterHit = !"unknownEmail".equals(failure);
+
+        authenticationService = new AuthenticationService();
+        ReflectionTestUtils.setField(authenticationService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(authenticationService, "shardRouter", new ShardRouter());
+        ReflectionTestUtils.setField(authenticationService, "registeredEmailFilter", new RegisteredEmailFilter() {
+            @Override
+            public boolean mightContain(String email) {
+                return filterHit;
+            }
+        });
+        ReflectionTestUtils.setField(authenticationService, "userService", new UserService() {
+            @Override
+            public Optional<User> findByEmail(String email) {
+                return found;
+            }
+        });
+        // Only stored by init(); refresh-token rotation is not exercised here
+        ReflectionTestUtils.setField(authenticationService, "transactionManager", new DataSourceTransactionManager());
+        ReflectionTestUtils.setField(authenticationService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(authenticationService, "init");
+
+        exceptionHandler = new ApiExceptionHandler();
+        request = new LoginRequest(EMAIL, "wrong-password");
+    }
+
+    @Benchmark
+    public byte[] rejectedLogin() {
+        try {
+            authenticationService.login(request);
+            throw new IllegalStateException("Login unexpectedly succeeded");
+        } catch (AuthException e) {
+            return exceptionHandler.handleAuthException(e).getBody();
+        }
+    }
+}
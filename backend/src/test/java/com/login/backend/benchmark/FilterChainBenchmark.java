@@ -0,0 +1,378 @@
+package com.login.backend.benchmark;
+
+import com.login.backend.BackendApplication;
+import com.login.backend.dto.UserCredentials;
+import com.login.backend.dto.UserProfile;
+import com.login.backend.dto.UserVersion;
+import com.login.backend.entity.User;
+import com.login.backend.repository.UserRepository;
+import com.login.backend.service.JwtService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.ApplicationContextFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.AbstractFilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletContextInitializer;
+import org.springframework.boot.web.servlet.ServletContextInitializerBeans;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The whole request pipeline in process: every servlet filter the application
+ * registers, the Spring Security chain from SecurityConfig (including
+ * JwtAuthenticationFilter), MVC dispatch, bean validation and JSON
+ * serialization. The context runs against an embedded PostgreSQL only so it
+ * can start; UserRepository is swapped for an in-memory store, so the numbers
+ * are the fixed overhead around AuthController/UserController, not database
+ * time.
+ * <p>
+ * "profile" sends GET /api/user/profile with a valid, expired, malformed or
+ * missing access token, or a mix of 85% valid and 5% of each failure. Run with
+ * "-p breakdown=true" to print, after the trial, the exclusive time and bytes
+ * allocated per request in each filter and in dispatch. Security filter rows
+ * are contained in the springSecurityFilterChain row. Probing costs a few
+ * clock reads per filter, so compare end-to-end scores with breakdown=false.
+ * The probes replace Spring Security's observation decorator, so security
+ * observations are not part of either measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+    private static final long USER_ID = 42L;
+
+    @State(Scope.Benchmark)
+    public static class Pipeline {
+
+        @Param({"false"})
+        public boolean breakdown;
+
+        private EmbeddedPostgres postgres;
+        private ConfigurableApplicationContext context;
+        private final Map<String, FilterProbe> probes = new LinkedHashMap<>();
+
+        MockMvc mockMvc;
+        String validToken;
+        String expiredToken;
+        RequestBuilder health;
+        RequestBuilder invalidLogin;
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            postgres = EmbeddedPostgres.start();
+            context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .contextFactory(ApplicationContextFactory.of(
+                    () -> new GenericWebApplicationContext(new MockServletContext())))
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                    .addBeanPostProcessor(new InMemoryUserStore()))
+                .properties(
+                    "spring.datasource.url=jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                    "spring.datasource.username=postgres",
+                    "spring.datasource.password=",
+                    "spring.jpa.show-sql=false",
+                    "spring.main.banner-mode=off",
+                    "logging.level.root=WARN",
+                    "rate-limit.enabled=false",
+                    "avatar.storage.dir=target/benchmark/avatars")
+                .run();
+
+            User user = new User("Benchmark User", EMAIL, "unused");
+            user.setId(USER_ID);
+            validToken = context.getBean(JwtService.class).generateAccessToken(user);
+            expiredToken = expiredJwtService().generateAccessToken(user);
+
+            FilterChainProxy securityChain = context.getBean("springSecurityFilterChain", FilterChainProxy.class);
+            if (breakdown) {
+                securityChain.setFilterChainDecorator(new ProbingDecorator());
+            }
+            List<Filter> filters = new ArrayList<>();
+            for (ServletContextInitializer initializer : new ServletContextInitializerBeans(context.getBeanFactory())) {
+                if (initializer instanceof AbstractFilterRegistrationBean<?> registration && registration.isEnabled()) {
+                    Filter filter = registration.getFilter();
+                    filters.add(breakdown ? probe("servlet", filter) : filter);
+                }
+            }
+            if (breakdown) {
+                // Last in the chain and inclusive: its time is the DispatcherServlet
+                // (MVC, validation, controller, JSON serialization)
+                FilterProbe dispatch = new FilterProbe("dispatch:DispatcherServlet",
+                    (request, response, chain) -> chain.doFilter(request, response), true);
+                probes.put(dispatch.name, dispatch);
+                filters.add(dispatch);
+            }
+            mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(filters.toArray(Filter[]::new))
+                .build();
+
+            health = get("/api/auth/health");
+            invalidLogin = post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"not-an-email\",\"password\":\"\"}");
+        }
+
+        @Setup(Level.Iteration)
+        public void resetProbes() {
+            probes.values().forEach(FilterProbe::reset);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            if (breakdown) {
+                System.out.printf("%n%-60s %12s %12s%n", "filter (last iteration)", "ns/request", "bytes/request");
+                probes.values().forEach(FilterProbe::print);
+            }
+            context.close();
+            postgres.close();
+        }
+
+        private JwtService expiredJwtService() {
+            JwtService jwtService = new JwtService();
+            ReflectionTestUtils.setField(jwtService, "secret", context.getEnvironment().getProperty("jwt.secret"));
+            ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", -60_000L);
+            ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+            ReflectionTestUtils.setField(jwtService, "accessTokenFormat",
+                context.getEnvironment().getProperty("jwt.access-token.format", "standard"));
+            ReflectionTestUtils.invokeMethod(jwtService, "init");
+            return jwtService;
+        }
+
+        private Filter probe(String stage, Filter filter) {
+            String name = filter instanceof DelegatingFilterProxy
+                ? "springSecurityFilterChain"
+                : ClassUtils.getUserClass(filter).getSimpleName();
+            return probes.computeIfAbsent(stage + ":" + name, key -> new FilterProbe(key, filter, false));
+        }
+
+        /**
+         * Wraps the security filters of each matched chain in probes. The
+         * wrapped list is cached per chain, so probing adds no per-request
+         * allocation beyond the VirtualFilterChain Spring Security creates anyway.
+         */
+        private final class ProbingDecorator implements FilterChainProxy.FilterChainDecorator {
+
+            private final FilterChainProxy.FilterChainDecorator delegate = new FilterChainProxy.VirtualFilterChainDecorator();
+            private final Map<List<Filter>, List<Filter>> wrapped = new IdentityHashMap<>();
+
+            @Override
+            public FilterChain decorate(FilterChain original, List<Filter> filters) {
+                List<Filter> probed = wrapped.computeIfAbsent(filters,
+                    list -> list.stream().map(filter -> probe("security", filter)).toList());
+                return delegate.decorate(original, probed);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TokenMix {
+
+        @Param({"valid", "expired", "malformed", "missing", "mixed"})
+        public String token;
+
+        private RequestBuilder[] requests;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void prepare(Pipeline pipeline) {
+            RequestBuilder valid = profile("Bearer " + pipeline.validToken);
+            RequestBuilder expired = profile("Bearer " + pipeline.expiredToken);
+            RequestBuilder malformed = profile("Bearer eyJhbGciOiJIUzI1NiJ9.bm90LWpzb24.c2lnbmF0dXJl");
+            RequestBuilder missing = profile(null);
+            requests = switch (token) {
+                case "valid" -> new RequestBuilder[] {valid};
+                case "expired" -> new RequestBuilder[] {expired};
+                case "malformed" -> new RequestBuilder[] {malformed};
+                case "missing" -> new RequestBuilder[] {missing};
+                default -> {
+                    RequestBuilder[] mix = new RequestBuilder[20];
+                    Arrays.fill(mix, valid);
+                    mix[4] = expired;
+                    mix[11] = malformed;
+                    mix[17] = missing;
+                    yield mix;
+                }
+            };
+        }
+
+        RequestBuilder nextRequest() {
+            RequestBuilder request = requests[next];
+            next = next + 1 == requests.length ? 0 : next + 1;
+            return request;
+        }
+
+        private static RequestBuilder profile(String authorization) {
+            return authorization == null
+                ? get("/api/user/profile")
+                : get("/api/user/profile").header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+    }
+
+    @Benchmark
+    public MvcResult profile(Pipeline pipeline, TokenMix mix) throws Exception {
+        return pipeline.mockMvc.perform(mix.nextRequest()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult health(Pipeline pipeline) throws Exception {
+        return pipeline.mockMvc.perform(pipeline.health).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult loginValidationError(Pipeline pipeline) throws Exception {
+        return pipeline.mockMvc.perform(pipeline.invalidLogin).andReturn();
+    }
+
+    /**
+     * Times one filter, excluding (unless inclusive) the time and allocation of
+     * everything it calls through the chain. Benchmarks run on one thread and each filter
+     * runs once per request, so the state is plain fields.
+     */
+    static final class FilterProbe implements Filter, FilterChain {
+
+        private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private final String name;
+        private final Filter filter;
+        private final boolean inclusive;
+        private FilterChain next;
+        private long downstreamNanos;
+        private long downstreamBytes;
+        private long requests;
+        private long nanos;
+        private long bytes;
+
+        FilterProbe(String name, Filter filter, boolean inclusive) {
+            this.name = name;
+            this.filter = filter;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            FilterChain outer = next;
+            long outerNanos = downstreamNanos;
+            long outerBytes = downstreamBytes;
+            next = chain;
+            downstreamNanos = 0;
+            downstreamBytes = 0;
+            long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            try {
+                filter.doFilter(request, response, inclusive ? chain : this);
+            } finally {
+                nanos += System.nanoTime() - start - downstreamNanos;
+                bytes += THREADS.getCurrentThreadAllocatedBytes() - startBytes - downstreamBytes;
+                requests++;
+                next = outer;
+                downstreamNanos = outerNanos;
+                downstreamBytes = outerBytes;
+            }
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            long startBytes = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            try {
+                next.doFilter(request, response);
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+                downstreamBytes += THREADS.getCurrentThreadAllocatedBytes() - startBytes;
+            }
+        }
+
+        void reset() {
+            requests = 0;
+            nanos = 0;
+            bytes = 0;
+        }
+
+        void print() {
+            if (requests > 0) {
+                System.out.printf("%-60s %12d %12d%n", name, nanos / requests, bytes / requests);
+            }
+        }
+    }
+
+    /**
+     * Replaces the UserRepository bean with a map of one user, answering the
+     * lookups of the authenticated request path and the startup filter rebuild.
+     */
+    static final class InMemoryUserStore implements BeanPostProcessor, InvocationHandler {
+
+        private final UserCredentials credentials = new UserCredentials(USER_ID, EMAIL, "unused", true);
+        private final UserVersion version = new UserVersion(USER_ID, LocalDateTime.of(2024, 1, 2, 11, 30, 15));
+        private final UserProfile profile = new UserProfile(USER_ID, "Benchmark User", EMAIL, null, null, true,
+            LocalDateTime.of(2024, 1, 1, 10, 0), version.updatedAt());
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            // Called for the repository factory bean too; only swap the repository it produces
+            if (!"userRepository".equals(beanName) || !(bean instanceof UserRepository)) {
+                return bean;
+            }
+            return Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[] {UserRepository.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "findCredentialsByEmail" -> EMAIL.equals(args[0]) ? Optional.of(credentials) : Optional.empty();
+                case "findCredentialsById" -> Long.valueOf(USER_ID).equals(args[0]) ? Optional.of(credentials) : Optional.empty();
+                case "findVersionByEmail" -> EMAIL.equals(args[0]) ? Optional.of(version) : Optional.empty();
+                case "findProfileByEmail" -> EMAIL.equals(args[0]) ? Optional.of(profile) : Optional.empty();
+                case "streamAllEmails" -> Stream.of(EMAIL);
+                case "findEmailsCreatedSince" -> List.of();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "InMemoryUserStore";
+                default -> throw new UnsupportedOperationException("Not in the benchmark user store: " + method.getName());
+            };
+        }
+    }
+}
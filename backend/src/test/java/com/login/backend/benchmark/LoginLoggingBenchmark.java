@@ -0,0 +1,138 @@
+package com.login.backend.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.login.backend.logging.LogSampling;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost per login on the request thread: the old System.err /
+ * printStackTrace path, the development pattern layout, and the prod profile
+ * (MDC request id, 1-in-100 sampled success line, ECS JSON through a
+ * non-blocking AsyncAppender). Output goes to a null stream, so this measures
+ * formatting and hand-off, not terminal or disk I/O.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginLoggingBenchmark {
+
+    private static final int PROD_SAMPLE_RATE = 100;
+
+    private PrintStream legacyErr;
+    private Logger devLogger;
+    private Logger prodLogger;
+    private AsyncAppender prodAppender;
+    private OutputStreamAppender<ILoggingEvent> devAppender;
+    private BadCredentialsException failure;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+
+        legacyErr = new PrintStream(OutputStream.nullOutputStream());
+        failure = new BadCredentialsException("Bad credentials");
+
+        PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+        pattern.setContext(context);
+        pattern.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%X{requestId:-}] %pid --- [%t] %-40.40logger{39} : %m%n%wEx");
+        pattern.start();
+        devAppender = nullAppender(context, pattern);
+        devLogger = logger(context, "benchmark.dev", Level.DEBUG);
+        devLogger.addAppender(devAppender);
+
+        StructuredLogEncoder json = new StructuredLogEncoder();
+        json.setContext(context);
+        json.setFormat("ecs");
+        json.start();
+        prodAppender = new AsyncAppender();
+        prodAppender.setContext(context);
+        prodAppender.setQueueSize(8192);
+        prodAppender.setDiscardingThreshold(1638);
+        prodAppender.setNeverBlock(true);
+        prodAppender.setIncludeCallerData(false);
+        prodAppender.addAppender(nullAppender(context, json));
+        prodAppender.start();
+        prodLogger = logger(context, "benchmark.prod", Level.INFO);
+        prodLogger.addAppender(prodAppender);
+    }
+
+    @TearDown
+    public void tearDown() {
+        prodAppender.stop();
+        devAppender.stop();
+    }
+
+    @Benchmark
+    public void legacyFailedLogin() {
+        legacyErr.println("Login error: " + failure.getMessage());
+        failure.printStackTrace(legacyErr);
+    }
+
+    @Benchmark
+    public void devFailedLogin() {
+        MDC.put("requestId", "0123456789abcdef");
+        devLogger.debug("Login rejected: {}", failure.getMessage());
+        MDC.remove("requestId");
+    }
+
+    @Benchmark
+    public void prodFailedLogin() {
+        MDC.put("requestId", "0123456789abcdef");
+        prodLogger.debug("Login rejected: {}", failure.getMessage());
+        MDC.remove("requestId");
+    }
+
+    @Benchmark
+    public void devSuccessfulLogin() {
+        MDC.put("requestId", "0123456789abcdef");
+        devLogger.info("Login succeeded userId={} (sampled 1/{})", 42L, 1);
+        MDC.remove("requestId");
+    }
+
+    @Benchmark
+    public void prodSuccessfulLogin() {
+        MDC.put("requestId", "0123456789abcdef");
+        if (prodLogger.isInfoEnabled() && LogSampling.oneIn(PROD_SAMPLE_RATE)) {
+            prodLogger.info("Login succeeded userId={} (sampled 1/{})", 42L, PROD_SAMPLE_RATE);
+        }
+        MDC.remove("requestId");
+    }
+
+    private static OutputStreamAppender<ILoggingEvent> nullAppender(
+            LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private static Logger logger(LoggerContext context, String name, Level level) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        return logger;
+    }
+}
@@ -0,0 +1,62 @@
+package com.login.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.login.backend.dto.UserProfile;
+import com.login.backend.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the GET /api/user/profile body: the managed User entity as it was
+ * returned before, against the UserProfile projection. The setup prints both
+ * body sizes; run with "-prof gc" for gc.alloc.rate.norm (bytes/op). The
+ * projection also skips the password column and Hibernate's entity snapshot,
+ * which this benchmark does not cover.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileResponseBenchmark {
+
+    private ObjectWriter writer;
+    private User user;
+    private UserProfile profile;
+
+    @Setup
+    public void setUp() throws Exception {
+        writer = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .writer();
+
+        user = new User("Benchmark User", "bench@example.com",
+            "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+        user.setId(42L);
+        user.setProfilePicture("/avatars/3f786850e387550fdab836ed7e6dc881de23001b3f786850e387550fdab836ed");
+        user.setAvatarHash("3f786850e387550fdab836ed7e6dc881de23001b3f786850e387550fdab836ed");
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 11, 30, 15));
+        profile = UserProfile.of(user);
+
+        System.out.printf("%nentity body %d bytes, projection body %d bytes%n",
+            writer.writeValueAsBytes(user).length, writer.writeValueAsBytes(profile).length);
+    }
+
+    @Benchmark
+    public byte[] entity() throws Exception {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] projection() throws Exception {
+        return writer.writeValueAsBytes(profile);
+    }
+}
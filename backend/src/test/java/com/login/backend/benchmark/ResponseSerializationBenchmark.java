@@ -0,0 +1,94 @@
+package com.login.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.login.backend.controller.ApiExceptionHandler;
+import com.login.backend.dto.AuthResponse;
+import com.login.backend.dto.AuthResponseSerializer;
+import com.login.backend.entity.User;
+import com.login.backend.exception.InvalidCredentialsException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation and time per response body for the auth response and error paths.
+ * Run with "-prof gc" and compare gc.alloc.rate.norm (bytes/op) between the
+ * reflective* and the generated/preEncoded variants. Error bodies are written
+ * through the message converter MVC would pick, so both variants include the
+ * write to the servlet response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    private ObjectWriter reflectiveWriter;
+    private ObjectWriter generatedWriter;
+    private MappingJackson2HttpMessageConverter jsonConverter;
+    private ByteArrayHttpMessageConverter byteArrayConverter;
+    private ApiExceptionHandler exceptionHandler;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper reflective = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper generated = reflective.copy()
+            .registerModule(new SimpleModule().addSerializer(new AuthResponseSerializer()));
+        reflectiveWriter = reflective.writerFor(AuthResponse.class);
+        generatedWriter = generated.writerFor(AuthResponse.class);
+        jsonConverter = new MappingJackson2HttpMessageConverter(reflective);
+        byteArrayConverter = new ByteArrayHttpMessageConverter();
+        exceptionHandler = new ApiExceptionHandler();
+
+        user = new User("Benchmark User", "bench@example.com", "$2a$10$hash");
+        user.setId(42L);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 11, 30, 15));
+    }
+
+    @Benchmark
+    public byte[] authResponseReflective() throws Exception {
+        return reflectiveWriter.writeValueAsBytes(new AuthResponse("access", "refresh", 900000L, user));
+    }
+
+    @Benchmark
+    public byte[] authResponseGenerated() throws Exception {
+        return generatedWriter.writeValueAsBytes(new AuthResponse("access", "refresh", 900000L, user));
+    }
+
+    @Benchmark
+    public byte[] errorBodyHashMap() throws Exception {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "Login failed: Bad credentials");
+        error.put("error", "LOGIN_ERROR");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        jsonConverter.write(error, MediaType.APPLICATION_JSON, new ServletServerHttpResponse(servletResponse));
+        return servletResponse.getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] errorBodyPreEncoded() throws Exception {
+        ResponseEntity<byte[]> response = exceptionHandler.handleAuthException(InvalidCredentialsException.INSTANCE);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        byteArrayConverter.write(response.getBody(), MediaType.APPLICATION_JSON, new ServletServerHttpResponse(servletResponse));
+        return servletResponse.getContentAsByteArray();
+    }
+}
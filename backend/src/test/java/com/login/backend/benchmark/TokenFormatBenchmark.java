@@ -0,0 +1,61 @@
+package com.login.backend.benchmark;
+
+import com.login.backend.entity.User;
+import com.login.backend.service.JwtService;
+import com.login.backend.service.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and verification cost of each access token format. The setup prints
+ * the bytes of the full "Authorization: Bearer ..." header line sent on every
+ * request; "verify" measures JwtService.verify as JwtAuthenticationFilter
+ * calls it (signature, expiry and subject extraction, without the user lookup).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenFormatBenchmark {
+
+    @Param({"standard", "compact", "binary"})
+    public String format;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret",
+            "benchmark-secret-benchmark-secret-benchmark-secret-0123456789");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "accessTokenFormat", format);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        user = new User("Benchmark User", "firstname.lastname@example-company.com", "unused");
+        user.setId(1_234_567L);
+        token = jwtService.generateAccessToken(user);
+
+        int headerBytes = ("Authorization: Bearer " + token + "\r\n").getBytes(StandardCharsets.US_ASCII).length;
+        System.out.printf("%n[%s] token %d bytes, Authorization header %d bytes%n",
+            format, token.length(), headerBytes);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtService.generateAccessToken(user);
+    }
+}
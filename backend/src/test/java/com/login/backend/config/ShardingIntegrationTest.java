@@ -0,0 +1,209 @@
+package com.login.backend.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.login.backend.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sharding against two embedded PostgreSQL databases: registrations land on
+ * the shard their email hashes to, and one rebalance step from one to two
+ * shards moves exactly the users whose bucket the second shard took over.
+ * Part of the embedded-database suite (mvn -Pquery-regression test).
+ */
+@Tag("query-regression")
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+    "app.datasource.shards.enabled=true",
+    "app.datasource.shards.username=postgres",
+    "app.datasource.shards.password=",
+    "app.datasource.shards.hikari.maximum-pool-size=5",
+    "spring.jpa.show-sql=false",
+    "rate-limit.enabled=false",
+    "concurrency-limit.enabled=false",
+    // Users inserted behind the application's back would be definite misses
+    "email-filter.enabled=false",
+    "avatar.storage.dir=target/sharding-test/avatars"
+})
+class ShardingIntegrationTest {
+
+    private static final int SHARDS = 2;
+    private static final String PASSWORD = "Sharding123";
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final List<EmbeddedPostgres> databases = new ArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Map<String, HikariDataSource> pools;
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            try {
+                databases.add(EmbeddedPostgres.builder().setServerConfig("max_connections", "30").start());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            urls.add("jdbc:postgresql://localhost:" + databases.get(i).getPort() + "/postgres");
+        }
+        registry.add("app.datasource.shards.urls", () -> String.join(",", urls));
+        registry.add("spring.datasource.url", () -> urls.get(0));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabases() throws IOException {
+        for (EmbeddedPostgres database : databases) {
+            database.close();
+        }
+    }
+
+    @Test
+    void registrationsLandOnTheirEmailsShard() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            String email = newEmail();
+            JsonNode response = register(email);
+            long id = response.get("user").get("id").asLong();
+            String refreshToken = response.get("refreshToken").asText();
+            int bucket = ShardRouter.bucketOf(email);
+            int shard = ShardRouter.shardOfBucket(bucket, SHARDS);
+
+            assertThat(ShardRouter.bucketOfUserId(id)).isEqualTo(bucket);
+            assertThat(ShardRouter.bucketOfToken(refreshToken)).isEqualTo(bucket);
+            assertThat(countUsers(shard, email)).isEqualTo(1);
+            assertThat(countUsers(1 - shard, email)).isZero();
+            assertThat(jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM refresh_tokens WHERE token = ? AND user_id = ?", Integer.class, refreshToken, id))
+                .isEqualTo(1);
+
+            login(email);
+        }
+    }
+
+    @Test
+    void rebalancingToASecondShardMovesOnlyItsBuckets() throws Exception {
+        // Users placed while the cluster had one shard: all of them on shard 0
+        List<String> moving = new ArrayList<>();
+        List<String> staying = new ArrayList<>();
+        Map<String, String> tokens = new HashMap<>();
+        while (moving.size() < 5 || staying.size() < 5) {
+            String email = newEmail();
+            (ShardRouter.shardOfBucket(ShardRouter.bucketOf(email), SHARDS) == 1 ? moving : staying).add(email);
+            tokens.put(email, insertOnShard0(email));
+        }
+
+        ShardRebalancer rebalancer = new ShardRebalancer();
+        ReflectionTestUtils.setField(rebalancer, "shardRouter", shardRouter);
+        ReflectionTestUtils.setField(rebalancer, "pools", pools);
+        ReflectionTestUtils.setField(rebalancer, "batchSize", 3);
+        Map<String, Long> moved = rebalancer.rebalance(1, SHARDS);
+
+        assertThat(moved).containsEntry("0->1", (long) moving.size()).hasSize(1);
+        for (String email : moving) {
+            assertThat(countUsers(0, email)).isZero();
+            assertThat(countUsers(1, email)).isEqualTo(1);
+            assertThat(countTokens(1, tokens.get(email))).isEqualTo(1);
+        }
+        for (String email : staying) {
+            assertThat(countUsers(0, email)).isEqualTo(1);
+            assertThat(countTokens(0, tokens.get(email))).isEqualTo(1);
+        }
+
+        // Moved users and their refresh tokens are found on their new shard (refresh first: login revokes)
+        String email = moving.get(0);
+        mockMvc.perform(post("/api/auth/refresh").param("refreshToken", tokens.get(email)))
+            .andExpect(status().isOk());
+        login(email);
+
+        // A second run finds nothing left to move
+        assertThat(rebalancer.rebalance(1, SHARDS)).isEmpty();
+    }
+
+    private String insertOnShard0(String email) {
+        JdbcTemplate shard0 = jdbc(0);
+        int bucket = ShardRouter.bucketOf(email);
+        long id = shard0.queryForObject("SELECT nextval('users_id_seq')", Long.class) * ShardRouter.BUCKETS + bucket;
+        shard0.update("INSERT INTO users (id, full_name, email, password) VALUES (?, ?, ?, ?)",
+            id, "Sharding User", email, passwordEncoder.encode(PASSWORD));
+        String token = Integer.toHexString(bucket) + "." + UUID.randomUUID();
+        shard0.update("INSERT INTO refresh_tokens (token, user_id, expiry_date) VALUES (?, ?, ?)",
+            token, id, Timestamp.valueOf(LocalDateTime.now().plusDays(1)));
+        return token;
+    }
+
+    private int countUsers(int shard, String email) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+    }
+
+    private int countTokens(int shard, String token) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM refresh_tokens WHERE token = ?", Integer.class, token);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(pools.get(ShardDataSourceConfig.poolName(shard)));
+    }
+
+    private JsonNode register(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                    "fullName", "Sharding User", "email", email, "password", PASSWORD))))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private void login(String email) throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD))))
+            .andExpect(status().isOk());
+    }
+
+    private static String newEmail() {
+        return "sharding-" + System.nanoTime() + "-" + SEQUENCE.incrementAndGet() + "@example.com";
+    }
+}
@@ -0,0 +1,63 @@
+package com.login.backend.query;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Base for the query regression suite: one embedded PostgreSQL per JVM,
+ * migrated by Flyway at context startup, and a single Spring context shared
+ * by every subclass. Excluded from the default test run; use
+ * mvn -Pquery-regression test.
+ */
+@Tag("query-regression")
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.format_sql=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.login.backend.query.SqlStatementRecorder",
+    "rate-limit.enabled=false",
+    "concurrency-limit.enabled=false",
+    "avatar.storage.dir=target/query-regression/avatars"
+})
+abstract class EmbeddedPostgresTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres database = database();
+        registry.add("spring.datasource.url",
+            () -> "jdbc:postgresql://localhost:" + database.getPort() + "/postgres?reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    private static synchronized EmbeddedPostgres database() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder()
+                    .setServerConfig("max_connections", "50")
+                    .setServerConfig("shared_buffers", "256MB")
+                    .start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // The process is exiting; the data directory is temporary
+                }
+            }));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,176 @@
+package com.login.backend.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements issued per request for every AuthController and
+ * UserController endpoint. Each endpoint is pinned to the exact number of
+ * statements it issues today; a test fails when an endpoint issues more or
+ * fewer, or issues the same statement twice within one request (a lazy load
+ * in a loop, a repeated lookup). When a change legitimately adds or removes
+ * a statement, update the count in the same commit and say why.
+ */
+class EndpointStatementCountTest extends EmbeddedPostgresTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final String PASSWORD = "Regression123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void register() throws Exception {
+        String email = newEmail();
+        // insert user, revoke older tokens, insert refresh token
+        assertStatements("POST /api/auth/register", 3, () -> register(email));
+    }
+
+    @Test
+    void login() throws Exception {
+        String email = newEmail();
+        register(email);
+        // select user, revoke older tokens, insert refresh token
+        assertStatements("POST /api/auth/login", 3, () -> login(email));
+    }
+
+    @Test
+    void refresh() throws Exception {
+        String refreshToken = register(newEmail()).get("refreshToken").asText();
+        // select token, conditional revoke, load token's user, revoke older tokens, insert refresh token
+        assertStatements("POST /api/auth/refresh", 5, () ->
+            mockMvc.perform(post("/api/auth/refresh").param("refreshToken", refreshToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void logout() throws Exception {
+        String refreshToken = register(newEmail()).get("refreshToken").asText();
+        // select token, update token
+        assertStatements("POST /api/auth/logout", 2, () ->
+            mockMvc.perform(post("/api/auth/logout").param("refreshToken", refreshToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void health() throws Exception {
+        assertStatements("GET /api/auth/health", 0, () ->
+            mockMvc.perform(get("/api/auth/health")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void getProfile() throws Exception {
+        String accessToken = register(newEmail()).get("accessToken").asText();
+        // credentials for the JWT filter, version stamp, profile projection
+        assertStatements("GET /api/user/profile", 3, () ->
+            mockMvc.perform(get("/api/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getProfileNotModified() throws Exception {
+        String accessToken = register(newEmail()).get("accessToken").asText();
+        String etag = mockMvc.perform(get("/api/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // credentials for the JWT filter, version stamp; the profile is not read
+        assertStatements("GET /api/user/profile (304)", 2, () ->
+            mockMvc.perform(get("/api/user/profile")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()));
+    }
+
+    @Test
+    void updateProfile() throws Exception {
+        String accessToken = register(newEmail()).get("accessToken").asText();
+        // credentials, select user, update user; open-in-view keeps the user managed, so merge does not re-read it
+        assertStatements("PUT /api/user/profile", 3, () ->
+            mockMvc.perform(put("/api/user/profile")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"fullName\":\"Renamed User\"}"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void uploadAvatar() throws Exception {
+        String accessToken = register(newEmail()).get("accessToken").asText();
+        MockMultipartFile file = new MockMultipartFile("file", "avatar.png", MediaType.IMAGE_PNG_VALUE, png());
+        // credentials, select user, update user; open-in-view keeps the user managed, so merge does not re-read it
+        assertStatements("POST /api/user/avatar", 3, () ->
+            mockMvc.perform(multipart("/api/user/avatar").file(file)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void deactivate() throws Exception {
+        String accessToken = register(newEmail()).get("accessToken").asText();
+        // credentials, select user by email, update user; findById is served from the open-in-view persistence context
+        assertStatements("DELETE /api/user/profile", 3, () ->
+            mockMvc.perform(delete("/api/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk()));
+    }
+
+    private void assertStatements(String endpoint, int expected, SqlStatementRecorder.Action request) throws Exception {
+        List<String> statements = SqlStatementRecorder.record(request);
+        String issued = endpoint + " issued:\n  " + String.join("\n  ", statements);
+
+        Map<String, Integer> repeats = new HashMap<>();
+        for (String sql : statements) {
+            repeats.merge(sql.replaceAll("\\s+", " ").trim(), 1, Integer::sum);
+        }
+        repeats.values().removeIf(count -> count == 1);
+        assertThat(repeats).as("Repeated statements (N+1). " + issued).isEmpty();
+        assertThat(statements).as("Expected exactly " + expected + " statements. " + issued).hasSize(expected);
+    }
+
+    private JsonNode register(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                    "fullName", "Regression User", "email", email, "password", PASSWORD))))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private void login(String email) throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD))))
+            .andExpect(status().isOk());
+    }
+
+    private static String newEmail() {
+        return "statements-" + System.nanoTime() + "-" + SEQUENCE.incrementAndGet() + "@example.com";
+    }
+
+    private static byte[] png() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
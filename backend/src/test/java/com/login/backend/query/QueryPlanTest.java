@@ -0,0 +1,190 @@
+package com.login.backend.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.login.backend.entity.User;
+import com.login.backend.repository.RefreshTokenRepository;
+import com.login.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of every UserRepository and RefreshTokenRepository query against
+ * query-regression.seed-users users (default two million) and one refresh
+ * token each. The SQL is the statement Hibernate actually generates, captured
+ * while the repository method runs in a rolled-back transaction, then planned
+ * with EXPLAIN (GENERIC_PLAN) as a prepared statement would be. Hot lookups
+ * (per-request and per-login paths) must not sequentially scan users or
+ * refresh_tokens; the remaining plans are printed for review.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest extends EmbeddedPostgresTest {
+
+    private static final List<String> SCANNED_TABLES = List.of("users", "refresh_tokens");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${query-regression.seed-users:2000000}")
+    private int seedUsers;
+
+    private String email;
+    private long userId;
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        Integer seeded = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM users WHERE email LIKE 'seed-%'", Integer.class);
+        if (seeded == null || seeded < seedUsers) {
+            jdbcTemplate.update(
+                "INSERT INTO users (full_name, email, password, is_active, created_at, updated_at) " +
+                "SELECT 'Seed User ' || g, 'seed-' || g || '@example.com', " +
+                "'$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', g % 50 <> 0, " +
+                "timestamp '2020-01-01' + g * interval '1 minute', timestamp '2020-01-01' + g * interval '1 minute' " +
+                "FROM generate_series(?, ?) AS g", (seeded == null ? 0 : seeded) + 1, seedUsers);
+            jdbcTemplate.update(
+                "INSERT INTO refresh_tokens (token, user_id, expiry_date, is_revoked, created_at) " +
+                "SELECT 'seed-' || u.id, u.id, u.created_at + interval '7 days', u.id % 3 = 0, u.created_at " +
+                "FROM users u WHERE u.email LIKE 'seed-%' " +
+                "AND NOT EXISTS (SELECT 1 FROM refresh_tokens rt WHERE rt.user_id = u.id)");
+            jdbcTemplate.execute("VACUUM ANALYZE users");
+            jdbcTemplate.execute("VACUUM ANALYZE refresh_tokens");
+        }
+        email = "seed-" + (seedUsers / 2) + "@example.com";
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE lower(email) = ?", Long.class, email);
+        token = "seed-" + userId;
+    }
+
+    Stream<Arguments> queries() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Boolean> bothStates = List.of(true, false);
+        return Stream.of(
+            hot("UserRepository.findByEmail", () -> userRepository.findByEmail(email)),
+            hot("UserRepository.existsByEmail", () -> userRepository.existsByEmail(email)),
+            hot("UserRepository.findByEmailAndIsActive", () -> userRepository.findByEmailAndIsActive(email, true)),
+            hot("UserRepository.findVersionByEmail", () -> userRepository.findVersionByEmail(email)),
+            hot("UserRepository.findProfileByEmail", () -> userRepository.findProfileByEmail(email)),
+            hot("UserRepository.findCredentialsByEmail", () -> userRepository.findCredentialsByEmail(email)),
+            hot("UserRepository.findCredentialsById", () -> userRepository.findCredentialsById(userId)),
+            hot("UserRepository.findById", () -> userRepository.findById(userId)),
+            hot("UserRepository.insertIfEmailAbsent", () -> userRepository.insertIfEmailAbsent(
+                "Plan User", "plan-check@example.com", "unused", now, 1, 0)),
+            review("UserRepository.findEmailsCreatedSince", () -> userRepository.findEmailsCreatedSince(now.minusMinutes(1))),
+            review("UserRepository.findPageBefore", () -> userRepository.findPageBefore(
+                now, Long.MAX_VALUE, bothStates, PageRequest.of(0, 20))),
+            review("UserRepository.searchPageBefore", () -> userRepository.searchPageBefore(
+                "%seed-1234%", now, Long.MAX_VALUE, bothStates, PageRequest.of(0, 20))),
+            review("UserRepository.streamAllEmails", () -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.findFirst();
+                }
+            }),
+            hot("RefreshTokenRepository.findByToken", () -> refreshTokenRepository.findByToken(token)),
+            hot("RefreshTokenRepository.revokeIfActive", () -> refreshTokenRepository.revokeIfActive(token)),
+            hot("RefreshTokenRepository.revokeAllTokensForUser", () ->
+                refreshTokenRepository.revokeAllTokensForUser(userRepository.getReferenceById(userId))),
+            hot("RefreshTokenRepository.deleteAllTokensForUser", () ->
+                refreshTokenRepository.deleteAllTokensForUser(userRepository.getReferenceById(userId))),
+            review("RefreshTokenRepository.deleteExpiredTokens", () ->
+                refreshTokenRepository.deleteExpiredTokens(now.minusYears(10)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void noSequentialScanOnHotLookups(String query, boolean hot, Runnable call) throws Exception {
+        List<String> statements = SqlStatementRecorder.record(() -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                call.run();
+            });
+        });
+        assertThat(statements).as(query + " issued no SQL").isNotEmpty();
+
+        for (String sql : statements) {
+            JsonNode plan = objectMapper.readTree(jdbcTemplate.queryForObject(
+                "EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + positional(sql), String.class)).get(0).get("Plan");
+            List<String> nodes = new ArrayList<>();
+            List<String> seqScans = new ArrayList<>();
+            collect(plan, nodes, seqScans);
+            System.out.printf("%s%s: %s%n", query, hot ? "" : " (review)", String.join(" > ", nodes));
+            if (hot) {
+                assertThat(seqScans).as(query + " sequentially scans " + seqScans + "\n  " + sql).isEmpty();
+            }
+        }
+    }
+
+    private static void collect(JsonNode node, List<String> nodes, List<String> seqScans) {
+        String type = node.path("Node Type").asText();
+        String relation = node.path("Relation Name").asText("");
+        String index = node.path("Index Name").asText("");
+        nodes.add(type + (relation.isEmpty() ? "" : " on " + relation) + (index.isEmpty() ? "" : " using " + index));
+        if ("Seq Scan".equals(type) && SCANNED_TABLES.contains(relation)) {
+            seqScans.add(relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, nodes, seqScans);
+        }
+    }
+
+    /**
+     * Rewrite JDBC "?" placeholders as $1, $2, ... outside string literals
+     * @param sql statement as Hibernate prepared it
+     * @return statement EXPLAIN (GENERIC_PLAN) accepts
+     */
+    private static String positional(String sql) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        boolean quoted = false;
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                out.append('$').append(++parameter);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static Arguments hot(String query, Runnable call) {
+        return Arguments.of(query, true, call);
+    }
+
+    private static Arguments review(String query, Runnable call) {
+        return Arguments.of(query, false, call);
+    }
+}
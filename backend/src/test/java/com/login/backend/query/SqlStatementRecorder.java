@@ -0,0 +1,51 @@
+package com.login.backend.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that collects the SQL issued on the current
+ * thread while {@link #record} runs. Registered through
+ * hibernate.session_factory.statement_inspector; background work on other
+ * threads (audit trail, activity flush, filter rebuilds) is not counted.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    /**
+     * Work whose statements are recorded
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run an action and return the statements it issued, in order
+     * @param action work to run on this thread
+     * @return SQL statements with "?" placeholders
+     * @throws Exception if the action fails
+     */
+    public static List<String> record(Action action) throws Exception {
+        List<String> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            action.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = RECORDING.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,73 @@
+package com.login.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long STABLE_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // A 1 ns window rolls over as soon as it has its minimum of 10 samples
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200, 1, 1.5, 0.2);
+
+    @Test
+    void limitGrowsWhileLatencyIsStable() {
+        int before = limiter.getLimit();
+        for (int round = 0; round < 10; round++) {
+            saturateAndRelease(STABLE_LATENCY);
+        }
+        assertTrue(limiter.getLimit() > before, "limit " + limiter.getLimit() + " did not grow from " + before);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyInflates() {
+        for (int round = 0; round < 10; round++) {
+            saturateAndRelease(STABLE_LATENCY);
+        }
+        int grown = limiter.getLimit();
+        for (int round = 0; round < 10; round++) {
+            saturateAndRelease(STABLE_LATENCY * 5);
+        }
+        assertTrue(limiter.getLimit() < grown, "limit " + limiter.getLimit() + " did not shrink from " + grown);
+    }
+
+    @Test
+    void limitHoldsWhenDemandStaysFarBelowIt() {
+        int before = limiter.getLimit();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(STABLE_LATENCY, true);
+        }
+        assertEquals(before, limiter.getLimit());
+    }
+
+    @Test
+    void admitsUpToTheLimitAndUnsampledReleasesFreeSlots() {
+        int limit = limiter.getLimit();
+        for (int i = 0; i < limit; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(limit, limiter.getInFlight());
+
+        limiter.release(0, false);
+        assertEquals(limit - 1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /** Fill every slot, then release them all at the given latency */
+    private void saturateAndRelease(long latencyNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(latencyNanos, true);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.login.backend.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTokenCodecTest {
+
+    private static final byte[] SECRET = "binary-token-test-secret-of-at-least-32-bytes".getBytes(StandardCharsets.UTF_8);
+
+    private final BinaryTokenCodec codec = new BinaryTokenCodec(SECRET);
+    private final Instant expiresAt = Instant.now().plus(15, ChronoUnit.MINUTES);
+
+    @Test
+    void roundTripsUserIdAndExpiry() {
+        for (long userId : new long[] {1, 42, 127, 128, 16_383, 16_384, 930_001_024L, Long.MAX_VALUE}) {
+            String token = codec.encode(userId, expiresAt);
+            assertFalse(token.contains("."));
+            assertFalse(token.contains("="));
+
+            VerifiedToken verified = codec.decode(token);
+            assertEquals(userId, verified.userId());
+            assertEquals(Long.toString(userId), verified.subject());
+            assertEquals(expiresAt.truncatedTo(ChronoUnit.SECONDS), verified.expiresAt());
+        }
+    }
+
+    @Test
+    void rejectsAFlippedTagByte() {
+        byte[] bytes = decode(codec.encode(42, expiresAt));
+        for (int i = bytes.length - 16; i < bytes.length; i++) {
+            byte[] forged = bytes.clone();
+            forged[i] ^= 0x01;
+            assertThrows(SignatureException.class, () -> codec.decode(encode(forged)));
+        }
+    }
+
+    @Test
+    void rejectsAModifiedPayload() {
+        byte[] bytes = decode(codec.encode(42, expiresAt));
+        // User id 42 -> 43, and a later expiry, both under the original tag
+        byte[] otherUser = bytes.clone();
+        otherUser[1] ^= 0x01;
+        assertThrows(SignatureException.class, () -> codec.decode(encode(otherUser)));
+        byte[] extended = bytes.clone();
+        extended[2] ^= 0x01;
+        assertThrows(SignatureException.class, () -> codec.decode(encode(extended)));
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        // A three-byte user id leaves room to lose a tag byte and still pass the length check
+        byte[] longer = decode(codec.encode(16_384, expiresAt));
+        assertThrows(SignatureException.class,
+            () -> codec.decode(encode(Arrays.copyOf(longer, longer.length - 1))));
+        byte[] bytes = decode(codec.encode(42, expiresAt));
+        for (int length = 0; length < 1 + 1 + 4 + 16; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(MalformedJwtException.class, () -> codec.decode(encode(truncated)));
+        }
+    }
+
+    @Test
+    void rejectsOverLongInput() {
+        byte[] bytes = decode(codec.encode(Long.MAX_VALUE, expiresAt));
+        assertThrows(MalformedJwtException.class,
+            () -> codec.decode(encode(Arrays.copyOf(bytes, 1 + 10 + 4 + 16 + 1))));
+        byte[] shortToken = decode(codec.encode(42, expiresAt));
+        assertThrows(SignatureException.class,
+            () -> codec.decode(encode(Arrays.copyOf(shortToken, shortToken.length + 1))));
+    }
+
+    @Test
+    void rejectsMalformedEncodingAndVersion() {
+        assertThrows(MalformedJwtException.class, () -> codec.decode("not base64url!"));
+        byte[] bytes = decode(codec.encode(42, expiresAt));
+        bytes[0] = 2;
+        assertThrows(MalformedJwtException.class, () -> codec.decode(encode(bytes)));
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String expired = codec.encode(42, Instant.now().minusSeconds(1));
+        assertThrows(ExpiredJwtException.class, () -> codec.decode(expired));
+        String expiringNow = codec.encode(42, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        assertThrows(ExpiredJwtException.class, () -> codec.decode(expiringNow));
+    }
+
+    @Test
+    void rejectsTokensFromAnotherKey() {
+        BinaryTokenCodec other = new BinaryTokenCodec("another-secret-of-at-least-32-bytes-long".getBytes(StandardCharsets.UTF_8));
+        assertThrows(SignatureException.class, () -> codec.decode(other.encode(42, expiresAt)));
+        assertThrows(SignatureException.class, () -> other.decode(codec.encode(42, expiresAt)));
+    }
+
+    private static byte[] decode(String token) {
+        return Base64.getUrlDecoder().decode(token);
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
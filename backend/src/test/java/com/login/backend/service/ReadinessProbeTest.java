@@ -0,0 +1,119 @@
+package com.login.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadinessProbeTest {
+
+    private static final Duration CACHE_TTL = Duration.ofMillis(20);
+    private static final Duration MAX_AGE = Duration.ofMillis(100);
+
+    private final CountDownLatch releaseConnection = new CountDownLatch(1);
+    private ReadinessProbe probe;
+
+    @AfterEach
+    void tearDown() {
+        releaseConnection.countDown();
+        probe.shutdown();
+    }
+
+    @Test
+    void healthyDatabaseProbedAfterMaxAgeIsUp() throws Exception {
+        probe = probe(healthyDataSource());
+        ReadinessProbe.Result first = awaitCheck();
+        assertTrue(first.ready());
+
+        // Probes further apart than max-age: the old result is served while a new check runs
+        Thread.sleep(MAX_AGE.toMillis() * 2);
+        assertTrue(probe.current().ready());
+        assertTrue(awaitNewerThan(first).ready());
+    }
+
+    @Test
+    void checkRunningLongerThanMaxAgeIsDown() throws Exception {
+        DataSource dataSource = healthyDataSource();
+        Connection connection = dataSource.getConnection();
+        // The first check succeeds; the next one waits for a pool connection
+        when(dataSource.getConnection()).thenReturn(connection).thenAnswer(invocation -> {
+            releaseConnection.await();
+            throw new SQLTransientConnectionException("Connection is not available");
+        });
+        probe = probe(dataSource);
+        ReadinessProbe.Result first = awaitCheck();
+        assertTrue(first.ready());
+
+        Thread.sleep(CACHE_TTL.toMillis() * 2);
+        assertTrue(probe.current().ready());
+        Thread.sleep(MAX_AGE.toMillis() * 2);
+        ReadinessProbe.Result result = probe.current();
+        assertFalse(result.ready());
+        assertTrue(new String(result.body(), StandardCharsets.UTF_8).contains("\"check\":\"OVERDUE\""));
+    }
+
+    private ReadinessProbe probe(DataSource dataSource) {
+        DatabasePressureMonitor pressureMonitor = mock(DatabasePressureMonitor.class);
+        ReadinessProbe probe = new ReadinessProbe();
+        ReflectionTestUtils.setField(probe, "dataSource", dataSource);
+        ReflectionTestUtils.setField(probe, "pressureMonitor", pressureMonitor);
+        ReflectionTestUtils.setField(probe, "cacheTtl", CACHE_TTL);
+        ReflectionTestUtils.setField(probe, "maxAge", MAX_AGE);
+        ReflectionTestUtils.setField(probe, "queryTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(probe, "maxPendingThreads", 20);
+        probe.init();
+        return probe;
+    }
+
+    private ReadinessProbe.Result awaitCheck() throws InterruptedException {
+        return awaitNewerThan(probe.current());
+    }
+
+    private ReadinessProbe.Result awaitNewerThan(ReadinessProbe.Result previous) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            ReadinessProbe.Result result = probe.current();
+            if (result != previous && result.checkedAt() != previous.checkedAt()) {
+                return result;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("No readiness check completed");
+    }
+
+    private static DataSource healthyDataSource() throws Exception {
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> selectOne());
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private static ResultSet selectOne() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.getInt(1)).thenReturn(1);
+        return resultSet;
+    }
+}
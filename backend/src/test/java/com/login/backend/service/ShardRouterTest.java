@@ -0,0 +1,106 @@
+package com.login.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    @Test
+    void bucketOfIsStableAndIgnoresCaseAndWhitespace() {
+        // Pinned: buckets are baked into stored ids and tokens, so the hash must never change
+        assertEquals(930, ShardRouter.bucketOf("alice@example.com"));
+        assertEquals(835, ShardRouter.bucketOf("bob@example.com"));
+        assertEquals(974, ShardRouter.bucketOf("carol@example.org"));
+        assertEquals(930, ShardRouter.bucketOf("  Alice@Example.COM "));
+        for (int i = 0; i < 10_000; i++) {
+            int bucket = ShardRouter.bucketOf("user" + i + "@example.com");
+            assertTrue(bucket >= 0 && bucket < ShardRouter.BUCKETS);
+        }
+    }
+
+    @Test
+    void shardOfBucketIsStable() {
+        assertEquals(1, ShardRouter.shardOfBucket(0, 2));
+        assertEquals(0, ShardRouter.shardOfBucket(1, 2));
+        assertEquals(2, ShardRouter.shardOfBucket(3, 3));
+        for (int bucket = 0; bucket < ShardRouter.BUCKETS; bucket++) {
+            assertEquals(0, ShardRouter.shardOfBucket(bucket, 1));
+        }
+    }
+
+    @Test
+    void growingTheShardCountOnlyMovesBucketsToTheNewShard() {
+        for (int shards = 1; shards <= 16; shards++) {
+            int moved = 0;
+            for (int bucket = 0; bucket < ShardRouter.BUCKETS; bucket++) {
+                int before = ShardRouter.shardOfBucket(bucket, shards);
+                int after = ShardRouter.shardOfBucket(bucket, shards + 1);
+                assertTrue(after >= 0 && after <= shards);
+                if (before != after) {
+                    assertEquals(shards, after, "bucket " + bucket + " moved between old shards");
+                    moved++;
+                }
+            }
+            // The new shard takes about its fair share, 1/(shards + 1) of the buckets
+            double fairShare = ShardRouter.BUCKETS / (double) (shards + 1);
+            assertTrue(moved > fairShare * 0.65 && moved < fairShare * 1.35,
+                moved + " buckets moved going to " + (shards + 1) + " shards");
+        }
+    }
+
+    @Test
+    void bucketOfTokenReadsTheHexPrefix() {
+        assertEquals(0x1a3, ShardRouter.bucketOfToken("1a3." + UUID.randomUUID()));
+        assertEquals(0x1a3, ShardRouter.bucketOfToken("1A3.token"));
+        assertEquals(0, ShardRouter.bucketOfToken("0.token"));
+        assertEquals(1023, ShardRouter.bucketOfToken("3ff.token"));
+
+        assertEquals(-1, ShardRouter.bucketOfToken(null));
+        assertEquals(-1, ShardRouter.bucketOfToken(UUID.randomUUID().toString()));
+        assertEquals(-1, ShardRouter.bucketOfToken(".token"));
+        assertEquals(-1, ShardRouter.bucketOfToken("1234.token"));
+        assertEquals(-1, ShardRouter.bucketOfToken("xyz.token"));
+        assertEquals(-1, ShardRouter.bucketOfToken("-1.token"));
+        assertEquals(-1, ShardRouter.bucketOfToken("400.token"));
+    }
+
+    @Test
+    void idsAndTokensRoundTripToTheEmailsBucket() {
+        ShardRouter router = router(true);
+        for (int i = 0; i < 1_000; i++) {
+            String email = "user" + i + "@example.com";
+            int bucket = ShardRouter.bucketOf(email);
+            long id = (i + 1L) * router.idMultiplier() + router.idBucket(email);
+            String token = router.tokenPrefix(id) + UUID.randomUUID();
+
+            assertEquals(bucket, ShardRouter.bucketOfUserId(id));
+            assertEquals(bucket, ShardRouter.bucketOfToken(token));
+            assertEquals(router.shardForEmail(email), router.shardForUserId(id));
+            assertEquals(router.shardForEmail(email), router.shardForToken(token));
+        }
+    }
+
+    @Test
+    void unshardedRoutesEverythingToTheSingleDatabase() {
+        ShardRouter router = router(false);
+        assertEquals(1, router.shardCount());
+        assertEquals(1, router.idMultiplier());
+        assertEquals(0, router.idBucket("alice@example.com"));
+        assertEquals("", router.tokenPrefix(42L));
+        assertEquals(0, router.shardForEmail("alice@example.com"));
+        assertEquals(0, router.shardForToken("1a3.token"));
+    }
+
+    private static ShardRouter router(boolean enabled) {
+        ShardRouter router = new ShardRouter();
+        ReflectionTestUtils.setField(router, "enabled", enabled);
+        ReflectionTestUtils.setField(router, "urls", List.of("shard0", "shard1", "shard2"));
+        return router;
+    }
+}